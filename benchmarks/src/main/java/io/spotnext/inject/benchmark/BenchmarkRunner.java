@@ -0,0 +1,47 @@
+package io.spotnext.inject.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks single-threaded and with one thread per CPU core, and writes the results as JSON to {@code jmh-result-<threads>-threads.json}.
+ * <p>
+ * Usage: {@code java -jar target/benchmarks.jar [benchmark regex]}. The thread counts can be overridden with {@code -Dthreads=1,4,16}.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		final var include = args.length > 0 ? args[0] : "io\\.spotnext\\.inject\\.benchmark\\..*";
+
+		for (final var threads : getThreadCounts()) {
+			final var options = new OptionsBuilder()
+					.include(include)
+					.threads(threads)
+					.resultFormat(ResultFormatType.JSON)
+					.result(String.format("jmh-result-%s-threads.json", threads))
+					.build();
+
+			new Runner(options).run();
+		}
+	}
+
+	private static List<Integer> getThreadCounts() {
+		final var property = System.getProperty("threads");
+		final var threadCounts = new ArrayList<Integer>();
+
+		if (property != null) {
+			Arrays.stream(property.split(",")).map(String::trim).map(Integer::valueOf).forEach(threadCounts::add);
+		} else {
+			threadCounts.add(1);
+			threadCounts.add(Runtime.getRuntime().availableProcessors());
+		}
+
+		return threadCounts;
+	}
+}
@@ -0,0 +1,98 @@
+package io.spotnext.inject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.spotnext.inject.Context;
+import io.spotnext.inject.benchmark.beans.BenchHandler;
+import io.spotnext.inject.benchmark.beans.ManualBenchTarget;
+import io.spotnext.inject.benchmark.beans.PrototypeBenchBean;
+import io.spotnext.inject.benchmark.beans.PrototypeBenchBeanImpl;
+import io.spotnext.inject.benchmark.beans.SingletonBenchService;
+
+/**
+ * Measures the hot paths of the {@link Context}. Run with different thread counts to measure contention, see {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextBenchmark {
+
+	private Context context;
+	private int singletonId;
+
+	@Setup
+	public void setup() {
+		context = Context.instance();
+
+		// resolve everything once, so that only the steady state is measured
+		context.getBean(SingletonBenchService.class);
+		context.getBean(PrototypeBenchBean.class);
+		context.getBean(PrototypeBenchBeanImpl.class);
+		context.getBeans(BenchHandler.class);
+		singletonId = context.getBeanId(SingletonBenchService.class);
+	}
+
+	@Benchmark
+	public SingletonBenchService singletonHit() {
+		return context.getBean(SingletonBenchService.class);
+	}
+
+	@Benchmark
+	public SingletonBenchService singletonIdHit() {
+		return context.getBean(singletonId);
+	}
+
+	@Benchmark
+	public PrototypeBenchBean prototypeCreation() {
+		return context.getBean(PrototypeBenchBean.class);
+	}
+
+	@Benchmark
+	public PrototypeBenchBeanImpl interfaceFallback() {
+		return context.getBean(PrototypeBenchBeanImpl.class);
+	}
+
+	@Benchmark
+	public SingletonBenchService namedLookup() {
+		return context.getBean("SingletonBenchServiceImpl", SingletonBenchService.class);
+	}
+
+	@Benchmark
+	public void getBeans(Blackhole blackhole) {
+		var value = 0;
+
+		for (final var handler : context.getBeans(BenchHandler.class)) {
+			value = handler.handle(value);
+		}
+
+		blackhole.consume(value);
+	}
+
+	@Benchmark
+	public void forEachBean(Blackhole blackhole) {
+		context.forEachBean(BenchHandler.class, handler -> blackhole.consume(handler.handle(0)));
+	}
+
+	@Benchmark
+	public ManualBenchTarget injectBeans() {
+		final var target = new ManualBenchTarget();
+		context.injectBeans(target);
+
+		return target;
+	}
+}
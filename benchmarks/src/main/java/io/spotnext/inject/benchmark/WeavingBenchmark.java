@@ -0,0 +1,62 @@
+package io.spotnext.inject.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.spotnext.inject.Context;
+import io.spotnext.inject.benchmark.beans.WeavableBenchBean;
+import io.spotnext.inject.instrumentation.InjectionTransformer;
+import io.spotnext.instrumentation.DynamicInstrumentationLoader;
+
+/**
+ * Compares load-time-woven injection with reflective injection. Every parameter runs in its own fork, so the weaver is only installed for the
+ * {@code woven} runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeavingBenchmark {
+
+	@Param({ "reflective", "woven" })
+	private String injection;
+
+	private Context context;
+	private boolean woven;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		woven = "woven".equals(injection);
+
+		if (woven) {
+			DynamicInstrumentationLoader.initialize(InjectionTransformer.class);
+		}
+
+		context = Context.instance();
+	}
+
+	@Benchmark
+	public WeavableBenchBean createAndInject() {
+		final var bean = new WeavableBenchBean();
+
+		if (!woven) {
+			context.injectBeans(bean);
+		}
+
+		return bean;
+	}
+}
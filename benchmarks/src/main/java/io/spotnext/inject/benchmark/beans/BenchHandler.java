@@ -0,0 +1,8 @@
+package io.spotnext.inject.benchmark.beans;
+
+/**
+ * An extension point with multiple implementations, like a handler chain.
+ */
+public interface BenchHandler {
+	int handle(int value);
+}
@@ -0,0 +1,14 @@
+package io.spotnext.inject.benchmark.beans;
+
+import io.spotnext.inject.annotations.Ordered;
+import io.spotnext.inject.annotations.Singleton;
+
+@Ordered(2)
+@Singleton
+public class BenchHandler2 implements BenchHandler {
+
+	@Override
+	public int handle(int value) {
+		return value + 2;
+	}
+}
@@ -0,0 +1,23 @@
+package io.spotnext.inject.benchmark.beans;
+
+import io.spotnext.inject.annotations.Inject;
+
+/**
+ * A manually created object, injected using {@link io.spotnext.inject.Context#injectBeans(Object)}.
+ */
+public class ManualBenchTarget {
+
+	@Inject
+	private SingletonBenchService service;
+
+	@Inject
+	private PrototypeBenchBean prototype;
+
+	public SingletonBenchService getService() {
+		return service;
+	}
+
+	public PrototypeBenchBean getPrototype() {
+		return prototype;
+	}
+}
@@ -0,0 +1,16 @@
+package io.spotnext.inject.benchmark.beans;
+
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Prototype;
+
+@Prototype
+public class PrototypeBenchBeanImpl implements PrototypeBenchBean {
+
+	@Inject
+	private SingletonBenchService service;
+
+	@Override
+	public SingletonBenchService getService() {
+		return service;
+	}
+}
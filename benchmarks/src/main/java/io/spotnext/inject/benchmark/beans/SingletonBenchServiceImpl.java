@@ -0,0 +1,12 @@
+package io.spotnext.inject.benchmark.beans;
+
+import io.spotnext.inject.annotations.Singleton;
+
+@Singleton
+public class SingletonBenchServiceImpl implements SingletonBenchService {
+
+	@Override
+	public int getValue() {
+		return 42;
+	}
+}
@@ -0,0 +1,5 @@
+package io.spotnext.inject.benchmark.beans;
+
+public interface WeavableBench {
+	SingletonBenchService getService();
+}
@@ -0,0 +1,19 @@
+package io.spotnext.inject.benchmark.beans;
+
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Prototype;
+
+/**
+ * Only used by the {@link io.spotnext.inject.benchmark.WeavingBenchmark}, so that it is not loaded before the load-time weaver has been installed.
+ */
+@Prototype
+public class WeavableBenchBean implements WeavableBench {
+
+	@Inject
+	private SingletonBenchService service;
+
+	@Override
+	public SingletonBenchService getService() {
+		return service;
+	}
+}
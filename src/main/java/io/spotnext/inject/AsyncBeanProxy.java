@@ -0,0 +1,49 @@
+package io.spotnext.inject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Stands in for a bean that is still being created asynchronously. Every method call waits for the bean and is then delegated to it.
+ */
+final class AsyncBeanProxy implements InvocationHandler {
+	private final CompletableFuture<Object> bean;
+
+	private AsyncBeanProxy(CompletableFuture<Object> bean) {
+		this.bean = bean;
+	}
+
+	static Object create(Class<?> beanType, CompletableFuture<Object> bean) {
+		return Proxy.newProxyInstance(beanType.getClassLoader(), new Class<?>[] { beanType }, new AsyncBeanProxy(bean));
+	}
+
+	/**
+	 * Waits for the given bean and rethrows the exception of its creation, if it failed.
+	 */
+	static Object await(CompletableFuture<Object> bean) {
+		try {
+			return bean.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+
+			throw new BeanException("Asynchronous bean initialization failed", e.getCause());
+		}
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(await(bean), args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package io.spotnext.inject;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+import io.spotnext.inject.annotations.AsyncInit;
+
+/**
+ * The resolved plan for a bean implementation: which class to use, its scope and how to build it.
+ */
+final class BeanDefinition {
+
+	/**
+	 * How the implementation has been found.
+	 */
+	enum Source {
+		BEAN_INDEX, SERVICE_LOADER, INTERFACE_FALLBACK
+	}
+
+	/**
+	 * How long an instance is reused.
+	 */
+	enum Scope {
+		SINGLETON, PROTOTYPE, THREAD, REQUEST, POOLED
+	}
+
+	private final Class<?> type;
+	private final int id;
+	private final Scope scope;
+	private final int scopedId;
+	private final boolean asyncInit;
+	private final short priority;
+	private final Source source;
+	private final Function<Context, ?> instantiator;
+	private final BeanFactory<Object> factory;
+
+	BeanDefinition(Class<?> type, int id, Scope scope, int scopedId, short priority, Source source, Function<Context, ?> instantiator,
+			BeanFactory<Object> factory) {
+		this.type = type;
+		this.id = id;
+		this.scope = scope;
+		this.scopedId = scopedId;
+		this.asyncInit = scope == Scope.SINGLETON && type.isAnnotationPresent(AsyncInit.class);
+		this.priority = priority;
+		this.source = source;
+		this.instantiator = instantiator;
+		this.factory = factory;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * The dense id of the implementation within the context, see {@link Context#getBeanId(Class)}.
+	 */
+	public int getId() {
+		return id;
+	}
+
+	public Scope getScope() {
+		return scope;
+	}
+
+	public boolean isSingleton() {
+		return scope == Scope.SINGLETON;
+	}
+
+	/**
+	 * True for thread and request scoped beans, whose instances are kept in a {@link ScopeStorage}.
+	 */
+	public boolean isScoped() {
+		return scope == Scope.THREAD || scope == Scope.REQUEST;
+	}
+
+	/**
+	 * The dense id of the implementation within the context, used as index into the {@link ScopeStorage}. -1 for singletons and prototypes.
+	 */
+	public int getScopedId() {
+		return scopedId;
+	}
+
+	/**
+	 * True for singletons annotated with {@link AsyncInit}.
+	 */
+	public boolean isAsyncInit() {
+		return asyncInit;
+	}
+
+	public short getPriority() {
+		return priority;
+	}
+
+	public Source getSource() {
+		return source;
+	}
+
+	public String getScopeName() {
+		return scope.name().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Creates a new instance of the bean, without injecting its fields.
+	 */
+	public Object newInstance(Context context) {
+		return factory != null ? factory.newInstance(context) : instantiator.apply(context);
+	}
+
+	/**
+	 * The generated factory of the bean, or null if there is none and the bean has to be created and injected reflectively.
+	 */
+	public BeanFactory<Object> getFactory() {
+		return factory;
+	}
+
+	@Override
+	public String toString() {
+		return type.getName() + " (" + getScopeName() + ")";
+	}
+}
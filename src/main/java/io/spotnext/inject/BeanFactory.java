@@ -0,0 +1,25 @@
+package io.spotnext.inject;
+
+/**
+ * Creates and injects beans without reflection. Implementations are generated by the {@link io.spotnext.inject.processor.BeanProcessor} for every bean
+ * class as {@code <bean class>$$Factory} and preferred by the {@link Context} over reflective instantiation and injection.
+ *
+ * @param <T> the bean type
+ */
+public interface BeanFactory<T> {
+	String CLASS_NAME_SUFFIX = "$$Factory";
+
+	/**
+	 * Creates a new instance of the bean, without injecting its fields. Dependencies of an {@link io.spotnext.inject.annotations.Inject} constructor are
+	 * resolved from the given context.
+	 */
+	T newInstance(Context context);
+
+	/**
+	 * Injects the dependencies of the given bean. This is a separate step so that circular dependencies between singletons can be resolved.
+	 *
+	 * @param context the context to resolve the dependencies from
+	 * @param bean    the bean created by {@link #newInstance(Context)}
+	 */
+	void inject(Context context, T bean);
+}
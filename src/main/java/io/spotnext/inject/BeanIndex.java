@@ -0,0 +1,297 @@
+package io.spotnext.inject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The compile-time bean index written by the {@link io.spotnext.inject.processor.BeanProcessor}. Every module contains one index file at {@link #INDEX_PATH}
+ * with one line per bean:
+ *
+ * <pre>
+ * implementation|scope annotation|priority|assignable types|inject fields|constructor parameters|name
+ * </pre>
+ *
+ * Assignable types and constructor parameter types are separated by {@code ,}, inject fields are written as {@code name=type} pairs separated by
+ * {@code ,}. All class names are binary names. This allows the {@link Context} to resolve beans without loading every candidate class.
+ * <p>
+ * Dependencies that are only resolved on first use ({@link Provider}, {@link java.util.function.Supplier} and
+ * {@link io.spotnext.inject.annotations.Lazy}) are written as their bean type prefixed with {@link #DEFERRED_PREFIX}.
+ */
+public final class BeanIndex {
+	public static final String INDEX_PATH = "META-INF/inject/beans.idx";
+
+	private static final String HEADER = "# implementation|scope|priority|types|injectFields|constructorParameters|name";
+	private static final String COLUMN_SEPARATOR = "|";
+	private static final String VALUE_SEPARATOR = ",";
+
+	/**
+	 * Marks the type of a dependency that is not resolved when the bean is created, eg. {@code provider=~com.example.Service}.
+	 */
+	public static final String DEFERRED_PREFIX = "~";
+
+	private final Map<String, List<Entry>> entriesByType;
+	private final Map<String, Entry> entriesByImplementation;
+	private final Map<String, List<Entry>> entriesByName;
+
+	private BeanIndex(Map<String, List<Entry>> entriesByType, Map<String, Entry> entriesByImplementation, Map<String, List<Entry>> entriesByName) {
+		this.entriesByType = entriesByType;
+		this.entriesByImplementation = entriesByImplementation;
+		this.entriesByName = entriesByName;
+	}
+
+	/**
+	 * Reads all index files visible to the given classloader.
+	 */
+	static BeanIndex load(ClassLoader classLoader) {
+		final var entriesByType = new HashMap<String, List<Entry>>();
+		final var entriesByImplementation = new LinkedHashMap<String, Entry>();
+		final var entriesByName = new HashMap<String, List<Entry>>();
+
+		try {
+			final var resources = classLoader.getResources(INDEX_PATH);
+
+			while (resources.hasMoreElements()) {
+				final var resource = resources.nextElement();
+
+				for (final var entry : read(resource.openStream())) {
+					entriesByImplementation.put(entry.getImplementation(), entry);
+					entriesByName.computeIfAbsent(entry.getName(), n -> new ArrayList<>(1)).add(entry);
+
+					for (final var type : entry.getTypes()) {
+						entriesByType.computeIfAbsent(type, t -> new ArrayList<>(2)).add(entry);
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new BeanException("Could not read bean index", e);
+		}
+
+		return new BeanIndex(entriesByType, entriesByImplementation, entriesByName);
+	}
+
+	/**
+	 * Returns all indexed beans that are assignable to the given type.
+	 */
+	List<Entry> getEntries(String typeName) {
+		return entriesByType.getOrDefault(typeName, Collections.emptyList());
+	}
+
+	/**
+	 * Returns all indexed beans with the given name. Beans of unrelated types may share a name.
+	 */
+	List<Entry> getEntriesByName(String name) {
+		return entriesByName.getOrDefault(name, Collections.emptyList());
+	}
+
+	/**
+	 * Returns the indexed bean with the given implementation class, or null if it is not indexed.
+	 */
+	Entry getEntry(String implementation) {
+		return entriesByImplementation.get(implementation);
+	}
+
+	/**
+	 * Returns all indexed beans, sorted by their priority.
+	 */
+	List<Entry> getAllEntries() {
+		return entriesByImplementation.values().stream()
+				.sorted(Comparator.comparing(Entry::getPriority))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Reads the index entries from an index file.
+	 *
+	 * @param input not {@code null}. Closed after use.
+	 * @return the entries in the order of the file
+	 * @throws IOException
+	 */
+	public static List<Entry> read(InputStream input) throws IOException {
+		final var entries = new ArrayList<Entry>();
+
+		try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					entries.add(Entry.parse(line));
+				}
+			}
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Writes the given entries to an index file.
+	 *
+	 * @param entries the entries to write, not {@code null}
+	 * @param output  not {@code null}. Not closed after use.
+	 * @throws IOException
+	 */
+	public static void write(Collection<Entry> entries, OutputStream output) throws IOException {
+		final var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+		writer.write(HEADER);
+		writer.newLine();
+
+		for (final var entry : entries) {
+			writer.write(entry.format());
+			writer.newLine();
+		}
+
+		writer.flush();
+	}
+
+	/**
+	 * A single bean in the index.
+	 */
+	public static final class Entry {
+		private final String implementation;
+		private final String scope;
+		private final short priority;
+		private final List<String> types;
+		private final Map<String, String> injectFields;
+		private final List<String> constructorParameters;
+		private final String name;
+
+		public Entry(String implementation, String scope, short priority, List<String> types, Map<String, String> injectFields,
+				List<String> constructorParameters, String name) {
+			this.implementation = implementation;
+			this.scope = scope;
+			this.priority = priority;
+			this.types = List.copyOf(types);
+			this.injectFields = Collections.unmodifiableMap(new LinkedHashMap<>(injectFields));
+			this.constructorParameters = List.copyOf(constructorParameters);
+			this.name = name;
+		}
+
+		/**
+		 * The binary name of the bean class.
+		 */
+		public String getImplementation() {
+			return implementation;
+		}
+
+		/**
+		 * The name of the scope annotation, eg. {@link io.spotnext.inject.annotations.Singleton}.
+		 */
+		public String getScope() {
+			return scope;
+		}
+
+		public short getPriority() {
+			return priority;
+		}
+
+		/**
+		 * The binary names of the bean class and all its superclasses and interfaces.
+		 */
+		public List<String> getTypes() {
+			return types;
+		}
+
+		/**
+		 * The {@link io.spotnext.inject.annotations.Inject} fields, mapped from field name to the field's type. The types of deferred fields are
+		 * prefixed with {@link BeanIndex#DEFERRED_PREFIX}.
+		 */
+		public Map<String, String> getInjectFields() {
+			return injectFields;
+		}
+
+		/**
+		 * The parameter types of the {@link io.spotnext.inject.annotations.Inject} constructor, empty if the bean uses the no-arg constructor.
+		 */
+		public List<String> getConstructorParameters() {
+			return constructorParameters;
+		}
+
+		/**
+		 * The types of all inject fields and constructor parameters that are resolved when the bean is created, without the deferred ones.
+		 */
+		public List<String> getEagerDependencies() {
+			final var dependencies = new ArrayList<String>(injectFields.size() + constructorParameters.size());
+
+			for (final var type : injectFields.values()) {
+				if (!type.startsWith(DEFERRED_PREFIX)) {
+					dependencies.add(type);
+				}
+			}
+
+			for (final var type : constructorParameters) {
+				if (!type.startsWith(DEFERRED_PREFIX)) {
+					dependencies.add(type);
+				}
+			}
+
+			return dependencies;
+		}
+
+		/**
+		 * The name of the bean, by default the simple class name.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		String format() {
+			final var fields = injectFields.entrySet().stream()
+					.map(e -> e.getKey() + "=" + e.getValue())
+					.collect(Collectors.joining(VALUE_SEPARATOR));
+
+			return String.join(COLUMN_SEPARATOR, implementation, scope, String.valueOf(priority), String.join(VALUE_SEPARATOR, types), fields,
+					String.join(VALUE_SEPARATOR, constructorParameters), name);
+		}
+
+		static Entry parse(String line) {
+			final var columns = line.split("\\" + COLUMN_SEPARATOR, -1);
+
+			if (columns.length < 5) {
+				throw new BeanException(String.format("Invalid bean index entry: %s", line));
+			}
+
+			final var injectFields = new LinkedHashMap<String, String>();
+			for (final var field : split(columns[4])) {
+				final var pos = field.indexOf('=');
+				injectFields.put(field.substring(0, pos), field.substring(pos + 1));
+			}
+
+			// the constructor parameters have been added later and are missing in older indexes
+			final var constructorParameters = columns.length > 5 ? split(columns[5]) : Collections.<String> emptyList();
+
+			// the same applies to the name, which defaults to the simple class name
+			final var name = columns.length > 6 ? columns[6] : getSimpleName(columns[0]);
+
+			return new Entry(columns[0], columns[1], Short.parseShort(columns[2]), split(columns[3]), injectFields, constructorParameters, name);
+		}
+
+		private static String getSimpleName(String binaryName) {
+			return binaryName.substring(Math.max(binaryName.lastIndexOf('.'), binaryName.lastIndexOf('$')) + 1);
+		}
+
+		private static List<String> split(String value) {
+			return value.isEmpty() ? Collections.emptyList() : Arrays.asList(value.split(VALUE_SEPARATOR));
+		}
+
+		@Override
+		public String toString() {
+			return format();
+		}
+	}
+}
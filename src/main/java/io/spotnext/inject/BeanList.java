@@ -0,0 +1,73 @@
+package io.spotnext.inject;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * All implementations of a bean type, ordered by their priority. Singletons are resolved once when the list is created and held directly, prototypes
+ * keep their pre-resolved {@link BeanDefinition}, so only the instantiation remains per lookup.
+ *
+ * @param <T> the bean type
+ */
+final class BeanList<T> {
+	private final BeanDefinition[] definitions;
+
+	/**
+	 * The singleton instances, null for prototypes.
+	 */
+	private final Object[] singletons;
+
+	/**
+	 * The immutable result if all beans are singletons, otherwise null.
+	 */
+	private final List<T> cached;
+
+	BeanList(Context context, List<BeanDefinition> definitions) {
+		this.definitions = definitions.toArray(new BeanDefinition[0]);
+		this.singletons = new Object[this.definitions.length];
+
+		var prototypes = false;
+
+		for (int i = 0; i < this.definitions.length; i++) {
+			if (this.definitions[i].isSingleton()) {
+				singletons[i] = context.getBean(this.definitions[i]);
+			} else {
+				prototypes = true;
+			}
+		}
+
+		this.cached = prototypes ? null : (List<T>) List.of(singletons);
+	}
+
+	/**
+	 * Returns an immutable list of all beans. If there are only singletons, the same list instance is returned on every call.
+	 */
+	List<T> getBeans(Context context) {
+		if (cached != null) {
+			return cached;
+		}
+
+		final var beans = new Object[definitions.length];
+
+		for (int i = 0; i < beans.length; i++) {
+			beans[i] = get(context, i);
+		}
+
+		return (List<T>) List.of(beans);
+	}
+
+	/**
+	 * Passes all beans to the given consumer without allocating a collection.
+	 */
+	void forEach(Context context, Consumer<? super T> action) {
+		for (int i = 0; i < definitions.length; i++) {
+			action.accept((T) get(context, i));
+		}
+	}
+
+	private Object get(Context context, int index) {
+		final var singleton = singletons[index];
+
+		return singleton != null ? singleton : context.getBean(definitions[index]);
+	}
+}
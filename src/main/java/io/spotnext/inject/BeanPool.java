@@ -0,0 +1,170 @@
+package io.spotnext.inject;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The idle instances of a {@link io.spotnext.inject.annotations.Pooled} bean. The pool is a fixed array of slots that are taken and filled with CAS
+ * operations, so it never blocks. Each thread starts probing at its own slot, which keeps concurrent threads on different slots and makes a thread
+ * likely to get back the instance it released before.
+ */
+public final class BeanPool {
+	private final Class<?> beanType;
+	private final AtomicReferenceArray<Object> slots;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder releases = new LongAdder();
+	private final LongAdder discarded = new LongAdder();
+
+	BeanPool(Class<?> beanType, int capacity) {
+		this.beanType = beanType;
+		this.slots = new AtomicReferenceArray<>(Math.max(capacity, 1));
+	}
+
+	/**
+	 * Takes an idle instance out of the pool.
+	 * 
+	 * @return the instance or null if the pool is empty
+	 */
+	Object acquire() {
+		final var length = slots.length();
+		final var start = probe(length);
+
+		for (int i = 0; i < length; i++) {
+			final var index = (start + i) % length;
+			final var bean = slots.get(index);
+
+			if (bean != null && slots.compareAndSet(index, bean, null)) {
+				hits.increment();
+				return bean;
+			}
+		}
+
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Puts an instance back into the pool.
+	 * 
+	 * @return false if the pool is full and the instance has been discarded
+	 */
+	boolean release(Object bean) {
+		final var length = slots.length();
+		final var start = probe(length);
+
+		for (int i = 0; i < length; i++) {
+			final var index = (start + i) % length;
+
+			if (slots.get(index) == null && slots.compareAndSet(index, null, bean)) {
+				releases.increment();
+				return true;
+			}
+		}
+
+		discard();
+		return false;
+	}
+
+	void discard() {
+		discarded.increment();
+	}
+
+	/**
+	 * Removes all idle instances from the pool and passes them to the given consumer.
+	 */
+	void clear(Consumer<Object> action) {
+		for (int i = 0; i < slots.length(); i++) {
+			final var bean = slots.getAndSet(i, null);
+
+			if (bean != null) {
+				action.accept(bean);
+			}
+		}
+	}
+
+	private static int probe(int length) {
+		return (int) (Thread.currentThread().getId() % length);
+	}
+
+	public Class<?> getBeanType() {
+		return beanType;
+	}
+
+	/**
+	 * The maximum number of idle instances.
+	 */
+	public int getCapacity() {
+		return slots.length();
+	}
+
+	/**
+	 * The current number of idle instances.
+	 */
+	public int getSize() {
+		var size = 0;
+
+		for (int i = 0; i < slots.length(); i++) {
+			if (slots.get(i) != null) {
+				size++;
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * The number of lookups served by an idle instance.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * The number of lookups that had to create a new instance.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * The share of lookups served by an idle instance, between 0 and 1.
+	 */
+	public double getHitRatio() {
+		final var hits = this.hits.sum();
+		final var total = hits + misses.sum();
+
+		return total > 0 ? (double) hits / total : 0;
+	}
+
+	/**
+	 * The number of instances returned to the pool.
+	 */
+	public long getReleases() {
+		return releases.sum();
+	}
+
+	/**
+	 * The number of released instances that have been dropped, because the pool was full or their reset failed.
+	 */
+	public long getDiscarded() {
+		return discarded.sum();
+	}
+
+	/**
+	 * Resets all counters to zero.
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		releases.reset();
+		discarded.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("BeanPool<%s> (%s/%s idle, hit ratio %.2f)", beanType.getName(), getSize(), getCapacity(), getHitRatio());
+	}
+}
@@ -1,189 +1,2117 @@
 package io.spotnext.inject;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.ServiceLoader;
-import java.util.ServiceLoader.Provider;
-import java.util.TreeSet;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import io.spotnext.inject.annotations.AsyncInit;
 import io.spotnext.inject.annotations.Bean;
-import io.spotnext.inject.annotations.Inject;
 import io.spotnext.inject.annotations.Ordered;
+import io.spotnext.inject.annotations.Pooled;
+import io.spotnext.inject.annotations.PreDestroy;
 import io.spotnext.inject.annotations.Processed;
 import io.spotnext.inject.annotations.Prototype;
+import io.spotnext.inject.annotations.RequestScoped;
 import io.spotnext.inject.annotations.Service;
 import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.annotations.ThreadScoped;
+import io.spotnext.inject.jfr.BeanInjectionEvent;
+import io.spotnext.inject.jfr.BeanInstantiationEvent;
+import io.spotnext.inject.jfr.BeanResolutionEvent;
+import io.spotnext.inject.jmx.ContextMetrics;
 import io.spotnext.support.util.ClassUtil;
 import io.spotnext.support.util.Loggable;
 
-public class Context implements Loggable {
-	private static final Map<ClassLoader, Context> instances = new HashMap<>();
+public class Context implements Loggable, AutoCloseable {
 
-	private final ClassLoader contextClassloader;
+	/**
+	 * The system property with the path of the resolution snapshot. If set, the snapshot is loaded on the first bean resolution and written after all
+	 * singletons have been pre-instantiated, see {@link #writeResolutionSnapshot(Path)}.
+	 */
+	public static final String SNAPSHOT_PROPERTY = "io.spotnext.inject.snapshot";
+
+	/**
+	 * The system property with the time in milliseconds {@link #close()} waits for the {@link PreDestroy} methods of the singletons, see
+	 * {@link #close(Duration)}. Defaults to {@value #DEFAULT_SHUTDOWN_TIMEOUT} ms.
+	 */
+	public static final String SHUTDOWN_TIMEOUT_PROPERTY = "io.spotnext.inject.shutdown.timeout";
+	public static final long DEFAULT_SHUTDOWN_TIMEOUT = 30_000;
+
+	/**
+	 * The contexts of all classloaders. Neither the classloaders nor the contexts are strongly referenced, as a context references classes and beans of
+	 * its classloader. Each context is kept alive by its classloader instead, see {@link #CONTEXT_HOLDERS}. Entries of collected classloaders are
+	 * removed on the next registration.
+	 */
+	private static final Map<ClassLoaderKey, WeakReference<Context>> instances = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<ClassLoader> collectedClassloaders = new ReferenceQueue<>();
+
+	/**
+	 * Holds the context of a classloader on the class it has been requested for. The value of a {@link ClassValue} is only reachable through its class,
+	 * and therefore through the classloader of the class, so a context doesn't keep its classloader alive.
+	 */
+	private static final ClassValue<AtomicReference<Context>> CONTEXT_HOLDERS = new ClassValue<>() {
+		@Override
+		protected AtomicReference<Context> computeValue(Class<?> type) {
+			return new AtomicReference<>();
+		}
+	};
+
+	/**
+	 * The context of the system classloader, which is by far the most frequently requested one.
+	 */
+	private static volatile Context systemInstance;
+
+	private static final ContextListener[] NO_LISTENERS = new ContextListener[0];
+
+	private static final int INITIAL_TABLE_SIZE = 64;
+
+	/**
+	 * Never committed, only used to check if the event is enabled, so lookups don't allocate an event while the flight recorder is off.
+	 */
+	private static final BeanResolutionEvent RESOLUTION_EVENT = new BeanResolutionEvent();
+
+	/**
+	 * Weakly referenced, so the context doesn't keep its classloader alive after all beans and classes of it are gone.
+	 */
+	private final WeakReference<ClassLoader> contextClassloader;
+
+	/**
+	 * The holder keeping this context alive, or null for the context of the system classloader.
+	 */
+	private volatile AtomicReference<Context> holder;
+	private volatile boolean closed = false;
+
+	/**
+	 * The scope annotations are replaced as a whole on registration, so readers never need to lock. After {@link #seal()} they can't be changed anymore.
+	 */
+	private volatile Set<Class<? extends Annotation>> singletonAnnotations = Set.of();
+	private volatile Set<Class<? extends Annotation>> prototypeAnnotations = Set.of();
+	private volatile boolean sealed = false;
+
+	/**
+	 * The dense ids of all resolved implementations, see {@link BeanDefinition#getId()}.
+	 */
+	private final Map<Class<?>, Integer> beanIds = new ConcurrentHashMap<>();
+	private final AtomicInteger beanIdCount = new AtomicInteger();
+
+	/**
+	 * Guards the growth of {@link #singletonTable} and {@link #definitionTable}.
+	 */
+	private final Object tableLock = new Object();
+
+	/**
+	 * Fully initialized singletons, indexed by the id of their implementation. Elements are only written while holding the {@link #tableLock}, readers
+	 * don't need to lock.
+	 */
+	private volatile AtomicReferenceArray<Object> singletonTable = new AtomicReferenceArray<>(INITIAL_TABLE_SIZE);
+
+	/**
+	 * The most recent bean definition of every implementation, indexed by its id.
+	 */
+	private volatile BeanDefinition[] definitionTable = new BeanDefinition[INITIAL_TABLE_SIZE];
+
+	/**
+	 * The singletons that are currently being created, by implementation type. No lock is held while a singleton is created, so different singletons
+	 * are built in parallel and threads creating singletons that depend on each other can't deadlock.
+	 */
+	private final Map<Class<?>, SingletonCreation> singletonsInCreation = new ConcurrentHashMap<>();
+
+	/**
+	 * The creation each thread is currently waiting for, to detect threads that wait for each other. Only accessed while holding the lock on the map, so
+	 * of two threads closing a cycle, the latter always sees the wait of the former.
+	 */
+	private final Map<Thread, SingletonCreation> waitingThreads = new HashMap<>();
+
+	/**
+	 * The resolution plans of all types that have been requested so far.
+	 */
+	private final Map<Class<?>, BeanDefinition> resolvedDefinitions = new ConcurrentHashMap<>();
+
+	/**
+	 * The ordered implementations of all types that have been requested by {@link #getBeans(Class)} so far.
+	 */
+	private final Map<Class<?>, BeanList<?>> beanLists = new ConcurrentHashMap<>();
+
+	/**
+	 * The definitions of all bean names that have been requested so far. Names are not unique across unrelated types, so there might be more than one.
+	 */
+	private final Map<String, BeanDefinition[]> namedDefinitions = new ConcurrentHashMap<>();
+
+	/**
+	 * Increased by {@link #invalidateResolutionCache()}, so that providers which keep a resolved definition resolve it again.
+	 */
+	private volatile int resolutionVersion;
+
+	/**
+	 * The dense ids of all thread and request scoped implementations, see {@link BeanDefinition#getScopedId()}.
+	 */
+	private final Map<Class<?>, Integer> scopedIds = new ConcurrentHashMap<>();
+	private final AtomicInteger scopedIdCount = new AtomicInteger();
+
+	/**
+	 * The pools of all {@link Pooled} implementations that have been requested so far.
+	 */
+	private final Map<Class<?>, BeanPool> pools = new ConcurrentHashMap<>();
+
+	/**
+	 * The {@link AsyncInit} singletons that are currently being created.
+	 */
+	private final Map<Class<?>, CompletableFuture<Object>> asyncInitializations = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of beans being created on the current thread, to decide whether a proxy can be returned for {@link AsyncInit} beans, followed by the
+	 * number of singletons among them.
+	 */
+	private final ThreadLocal<int[]> creationDepth = ThreadLocal.withInitial(() -> new int[2]);
+	private volatile Executor asyncExecutor;
+
+	private final ThreadLocal<ScopeStorage> threadScope = ThreadLocal.withInitial(ScopeStorage::new);
+	private final ThreadLocal<RequestScope> requestScope = new ThreadLocal<>();
 
-	private final List<Class<? extends Annotation>> singletonAnnotations = new ArrayList<>();
-	private final List<Class<? extends Annotation>> prototypeAnnotations = new ArrayList<>();
+	/**
+	 * The emptied storage of the last request scope closed on each thread, which is reused by the next scope entered on the thread.
+	 */
+	private final ThreadLocal<ScopeStorage> idleRequestStorage = new ThreadLocal<>();
+
+	/**
+	 * The compile-time bean index of all modules visible to the context classloader, read once on first use.
+	 */
+	private volatile BeanIndex beanIndex;
+
+	private volatile boolean warm = false;
+
+	/**
+	 * Replaced as a whole on registration, so firing an event is a single volatile read if there are no listeners.
+	 */
+	private volatile ContextListener[] listeners = NO_LISTENERS;
 
-	private final Map<Class<?>, Object> singletonCache = new HashMap<>();
+	/**
+	 * The snapshot configured by {@link #SNAPSHOT_PROPERTY}, until it has been loaded. It is loaded lazily, so that custom scope annotations can be
+	 * registered first.
+	 */
+	private volatile Path pendingSnapshot;
 
 	private Context(ClassLoader contextClassloader) {
-		this.contextClassloader = contextClassloader;
+		this.contextClassloader = new WeakReference<>(contextClassloader);
+
+		final var snapshot = System.getProperty(SNAPSHOT_PROPERTY);
+		if (snapshot != null) {
+			this.pendingSnapshot = Path.of(snapshot);
+		}
 
 		registerSingletonAnnotation(Singleton.class, Service.class);
 		registerPrototypeAnnotation(Prototype.class, Bean.class);
 	}
 
 	public static Context instance() {
-		return instance(ClassLoader.getSystemClassLoader());
+		final var instance = systemInstance;
+
+		if (instance != null) {
+			return instance;
+		}
+
+		return instance(ClassLoader.getSystemClassLoader(), null);
 	}
 
 	public static Context instance(Class<?> contextRoot) {
-		return instance(contextRoot.getClassLoader());
+		return instance(contextRoot.getClassLoader(), contextRoot);
 	}
 
-	private synchronized static Context instance(ClassLoader contextClassloader) {
-		var instance = instances.get(contextClassloader);
+	/**
+	 * Returns the context of the given classloader. Lookups of existing contexts are lock-free, only the creation of a new context is synchronized per
+	 * classloader.
+	 * 
+	 * @param contextRoot a class of the classloader, which keeps a new context alive. Only null for the system classloader.
+	 */
+	private static Context instance(ClassLoader classLoader, Class<?> contextRoot) {
+		final var contextClassloader = classLoader != null ? classLoader : ClassLoader.getSystemClassLoader();
+		final var existing = instances.get(new ClassLoaderKey(contextClassloader, null));
+		var instance = existing != null ? existing.get() : null;
 
 		if (instance == null) {
-			instance = new Context(contextClassloader);
-			instances.put(contextClassloader, instance);
+			removeCollectedInstances();
+
+			final var created = new Context[1];
+			instances.compute(new ClassLoaderKey(contextClassloader, collectedClassloaders), (k, reference) -> {
+				var context = reference != null ? reference.get() : null;
+
+				if (context == null) {
+					context = new Context(contextClassloader);
+					context.hold(contextRoot);
+
+					if (Boolean.getBoolean(ContextMetrics.ENABLED_PROPERTY)) {
+						ContextMetrics.register(context);
+					}
+
+					reference = new WeakReference<>(context);
+				}
+
+				created[0] = context;
+				return reference;
+			});
+
+			instance = created[0];
 		}
 
 		return instance;
 	}
 
-	public <T> T getBean(Class<T> beanType) {
-		return loadBean(beanType, null);
+	/**
+	 * Keeps the context alive as long as its classloader: the system context is referenced by {@link #systemInstance}, all others by their holder on
+	 * the given class.
+	 */
+	private void hold(Class<?> contextRoot) {
+		final var classLoader = getClassLoader();
+
+		if (classLoader == ClassLoader.getSystemClassLoader()) {
+			systemInstance = this;
+		} else {
+			holder = CONTEXT_HOLDERS.get(contextRoot);
+			holder.set(this);
+		}
 	}
-	
-	public <T> Collection<T> getBeans(Class<T> beanType) {
-		final List<Class<? extends T>> beanClasses = ServiceLoader
-				.load(beanType).stream()
-				.map(b -> b.type())
-				.collect(Collectors.toList());
-		
-		final var beans = new HashSet<T>();
-		
-		for (var bean : beanClasses) {
-			beans.add(getBean(bean));
+
+	private static void removeCollectedInstances() {
+		Reference<? extends ClassLoader> key;
+
+		while ((key = collectedClassloaders.poll()) != null) {
+			instances.remove(key);
 		}
-		
-		return beans;
 	}
 
-	public <T> T getBean(String beanName, Class<T> beanType) {
-		return loadBean(beanType, bean -> true);
+	/**
+	 * Closes the context, waiting at most the time configured by {@value #SHUTDOWN_TIMEOUT_PROPERTY} for the singletons to be destroyed, see
+	 * {@link #close(Duration)}.
+	 */
+	@Override
+	public void close() {
+		close(Duration.ofMillis(Long.getLong(SHUTDOWN_TIMEOUT_PROPERTY, DEFAULT_SHUTDOWN_TIMEOUT)));
 	}
 
-	public void injectBeans(Object object) {
-		final var injectFields = ClassUtil.getFields(object.getClass(), f -> f.getAnnotation(Inject.class) != null);
+	/**
+	 * Destroys all singletons, releases the cached metadata and removes the context from the registry, so it doesn't keep its classloader alive anymore.
+	 * The next call of {@link #instance(Class)} for the same classloader creates a new context. Closing an already closed context has no effect.
+	 * <p>
+	 * The {@link PreDestroy} methods of the singletons are called in reverse dependency order: a singleton is only destroyed after all singletons that
+	 * depend on it. Independent singletons are destroyed in parallel on the async executor. Singletons that are not destroyed before the timeout are
+	 * skipped and reported as unfinished. Idle pooled beans and the thread scoped beans of the calling thread are destroyed as well.
+	 *
+	 * @param timeout the maximum time to wait for the singletons to be destroyed
+	 * @return the time each singleton took to shut down, or an empty report if the context was already closed
+	 */
+	public ShutdownReport close(Duration timeout) {
+		synchronized (this) {
+			if (closed) {
+				return new ShutdownReport(Map.of(), Map.of(), Set.of(), Duration.ZERO);
+			}
+
+			closed = true;
+		}
+
+		// unregister first, so nobody obtains this context while its singletons are destroyed
+		instances.values().removeIf(reference -> reference.get() == this);
+
+		if (systemInstance == this) {
+			systemInstance = null;
+		}
 
-		for (final var field : injectFields) {
-			final var fieldType = field.getType();
-			final var fieldBean = loadBean(fieldType, null);
-			ClassUtil.setField(object, field.getName(), fieldBean);
+		if (holder != null) {
+			holder.compareAndSet(this, null);
 		}
+
+		final var report = destroySingletons(timeout);
+
+		if (!report.isComplete()) {
+			log().warn("Context shutdown incomplete: {}, unfinished: {}", report, report.getUnfinished());
+		}
+
+		for (final var listener : listeners) {
+			listener.contextClosed(this);
+		}
+
+		listeners = NO_LISTENERS;
+		synchronized (tableLock) {
+			singletonTable = new AtomicReferenceArray<>(0);
+			definitionTable = new BeanDefinition[0];
+		}
+		beanIds.clear();
+		resolvedDefinitions.clear();
+		beanLists.clear();
+		namedDefinitions.clear();
+		clearThreadScope();
+		pools.values().forEach(pool -> pool.clear(this::destroy));
+		pools.clear();
+		asyncInitializations.clear();
+		beanIndex = null;
+		pendingSnapshot = null;
+		warm = false;
+
+		log().debug("Context closed: {}", report);
+
+		return report;
 	}
 
-	private <T> T loadBean(Class<T> beanType, Predicate<T> predicate) {
-		var bean = singletonCache.get(beanType);
+	/**
+	 * Calls the {@link PreDestroy} methods of all created singletons in reverse dependency order.
+	 */
+	private ShutdownReport destroySingletons(Duration timeout) {
+		final var start = System.nanoTime();
+		final var deadline = start + timeout.toNanos();
 
-		if (bean == null) {
-			final var beans = ServiceLoader.load(beanType, contextClassloader);
+		// singletons that are still initialized asynchronously are destroyed as well
+		try {
+			CompletableFuture.allOf(asyncInitializations.values().toArray(new CompletableFuture[0])).get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			// failed initializations don't need to be destroyed, unfinished ones are reported below
+		}
+
+		final var singletons = new LinkedHashMap<Class<?>, Object>();
+		final BeanDefinition[] definitions;
+		final AtomicReferenceArray<Object> table;
+
+		synchronized (tableLock) {
+			definitions = definitionTable;
+			table = singletonTable;
+		}
 
-			final var beansGroupedByPriority = beans.stream()
-					.collect(Collectors.groupingBy(b -> getPriority(b)));
+		for (int i = 0; i < Math.min(definitions.length, table.length()); i++) {
+			final var bean = table.get(i);
 
-			for (var entry : beansGroupedByPriority.entrySet()) {
-				final var count = entry.getValue().size();
-				if (count > 1) {
-					final var beansStr = entry.getValue().stream()
-							.map(b -> b.type().getName())
-							.collect(Collectors.joining(", "));
-					log().warn("{} beans implementing {} with the same priority {} found: {}", count, beanType, entry.getKey(), beansStr);
+			if (bean != null && definitions[i] != null) {
+				singletons.put(definitions[i].getType(), bean);
+			}
+		}
+
+		final var dependents = new HashMap<Class<?>, Set<Class<?>>>();
+		for (final var type : singletons.keySet()) {
+			for (final var dependency : getCreatedDependencies(type, singletons.keySet(), new HashSet<>())) {
+				if (singletons.containsKey(dependency) && dependency != type) {
+					dependents.computeIfAbsent(dependency, d -> new HashSet<>()).add(type);
 				}
 			}
+		}
+
+		final var destructionTimes = new ConcurrentHashMap<Class<?>, Duration>();
+		final var failures = new ConcurrentHashMap<Class<?>, Throwable>();
+		final var futures = new LinkedHashMap<Class<?>, CompletableFuture<Void>>();
+		final var executor = getAsyncExecutor();
+
+		for (final var type : singletons.keySet()) {
+			scheduleDestruction(type, singletons, dependents, futures, new HashSet<>(), executor, destructionTimes, failures);
+		}
+
+		try {
+			CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()])).get(Math.max(deadline - System.nanoTime(), 0),
+					TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (TimeoutException e) {
+			log().warn("Singletons could not be destroyed within {} ms", timeout.toMillis());
+		} catch (Exception e) {
+			// failures of single beans are collected in the report
+		}
+
+		final var unfinished = futures.entrySet().stream()
+				.filter(e -> !e.getValue().isDone())
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toSet());
+
+		return new ShutdownReport(destructionTimes, failures, unfinished, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	/**
+	 * Schedules the destruction of the singleton once all singletons depending on it have been destroyed.
+	 */
+	private CompletableFuture<Void> scheduleDestruction(Class<?> type, Map<Class<?>, Object> singletons, Map<Class<?>, Set<Class<?>>> dependents,
+			Map<Class<?>, CompletableFuture<Void>> futures, Set<Class<?>> path, Executor executor, Map<Class<?>, Duration> destructionTimes,
+			Map<Class<?>, Throwable> failures) {
+
+		var future = futures.get(type);
 
-			// TODO switch to reflective constructor invocation, allowing parameter injection
-			var stream = beans.stream()
-					.sorted((s1, s2) -> getPriority(s1).compareTo(getPriority(s2)))
-					.map(s -> s.get());
+		if (future != null) {
+			return future;
+		}
 
-			if (predicate != null) {
-				stream = stream.filter(predicate);
+		// circular dependencies can't be ordered, the singletons are destroyed in arbitrary order
+		path.add(type);
+		final var waitFor = new ArrayList<CompletableFuture<Void>>();
+		for (final var dependent : dependents.getOrDefault(type, Set.of())) {
+			if (!path.contains(dependent)) {
+				waitFor.add(scheduleDestruction(dependent, singletons, dependents, futures, path, executor, destructionTimes, failures));
 			}
+		}
+		path.remove(type);
 
-			bean = stream.findFirst().orElse(null);
+		final var bean = singletons.get(type);
+		final var callbacks = LifecycleCallbacks.of(bean.getClass());
+		final var dependentsDestroyed = CompletableFuture.allOf(waitFor.toArray(new CompletableFuture[waitFor.size()]));
 
-			// try all interfaces
-			if (bean == null) {
-				for (var cls : ClassUtil.getAllSuperClasses(beanType, Object.class, false, true)) {
-					for (var iface : cls.getInterfaces()) {
-						bean = loadBean(iface, b -> b.getClass().equals(beanType));
-						
-						if (bean != null && bean.getClass().equals(beanType)) {
-							break;
-						}
-					}
+		if (callbacks.hasPreDestroy()) {
+			future = dependentsDestroyed.handleAsync((v, e) -> {
+				final var start = System.nanoTime();
+
+				try {
+					callbacks.preDestroy(bean);
+				} catch (RuntimeException | Error ex) {
+					log().warn(String.format("Could not destroy singleton %s", type.getName()), ex);
+					failures.put(type, ex);
 				}
+
+				destructionTimes.put(type, Duration.ofNanos(System.nanoTime() - start));
+				return null;
+			}, executor);
+		} else {
+			future = dependentsDestroyed;
+		}
+
+		futures.put(type, future);
+
+		return future;
+	}
+
+	/**
+	 * Calls the {@link PreDestroy} methods of a discarded thread scoped, request scoped or pooled bean. Exceptions are only logged, as the bean is
+	 * discarded anyway.
+	 */
+	void destroy(Object bean) {
+		final var callbacks = LifecycleCallbacks.of(bean.getClass());
+
+		if (callbacks.hasPreDestroy()) {
+			try {
+				callbacks.preDestroy(bean);
+			} catch (RuntimeException e) {
+				log().warn(String.format("Could not destroy bean %s", bean.getClass().getName()), e);
 			}
+		}
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	private void checkNotClosed() {
+		if (closed) {
+			throw new IllegalStateException("Context is closed");
+		}
+	}
+
+	private ClassLoader getClassLoader() {
+		final var classLoader = contextClassloader.get();
+
+		if (classLoader == null) {
+			throw new IllegalStateException("The classloader of the context has been garbage collected");
+		}
+
+		return classLoader;
+	}
+
+	public <T> T getBean(Class<T> beanType) {
+		return loadBean(beanType, null);
+	}
+	
+	/**
+	 * Returns all implementations of the given type, ordered by their {@link Ordered} priority. The implementations are discovered and resolved once per
+	 * type, the returned list is immutable.
+	 */
+	public <T> List<T> getBeans(Class<T> beanType) {
+		return getBeanList(beanType).getBeans(this);
+	}
+
+	/**
+	 * Passes all implementations of the given type to the consumer, in the same order as {@link #getBeans(Class)}, but without allocating a collection.
+	 */
+	public <T> void forEachBean(Class<T> beanType, Consumer<? super T> action) {
+		getBeanList(beanType).forEach(this, action);
+	}
+
+	private <T> BeanList<T> getBeanList(Class<T> beanType) {
+		final var beans = (BeanList<T>) beanLists.get(beanType);
+
+		if (beans != null) {
+			return beans;
+		}
+
+		checkNotClosed();
+
+		final var resolved = new BeanList<T>(this, resolveAllDefinitions(beanType));
+		final var existing = (BeanList<T>) beanLists.putIfAbsent(beanType, resolved);
+
+		return existing != null ? existing : resolved;
+	}
+
+	/**
+	 * Resolves the definitions of all indexed and service-loaded implementations of the given type, ordered by priority and name.
+	 */
+	private List<BeanDefinition> resolveAllDefinitions(Class<?> beanType) {
+		final var listeners = this.listeners;
+		final var start = listeners.length > 0 ? System.nanoTime() : 0L;
 
-			if (bean == null) {
-				throw new BeanException(String.format("Bean of type '%s' not found", beanType));
+		final var implementations = new LinkedHashSet<Class<?>>();
+
+		for (final var entry : getBeanIndex().getEntries(beanType.getName())) {
+			implementations.add(loadClass(entry.getImplementation()));
+		}
+
+		ServiceLoader.load(beanType, getClassLoader()).stream()
+				.forEach(p -> implementations.add(p.type()));
+
+		if (listeners.length > 0) {
+			final var duration = System.nanoTime() - start;
+
+			for (final var listener : listeners) {
+				listener.serviceLoaderScanned(beanType, duration);
 			}
+		}
+
+		return implementations.stream()
+				.map(type -> getDefinition(type, null))
+				.sorted(Comparator.comparing(BeanDefinition::getPriority).thenComparing(d -> d.getType().getName()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the bean with the given name, see {@link Singleton#value()}. After the first lookup of a name, this is a single hash lookup plus the
+	 * singleton cache or the instantiation of the prototype.
+	 */
+	public <T> T getBean(String beanName, Class<T> beanType) {
+		var definitions = namedDefinitions.get(beanName);
+
+		if (definitions == null) {
+			checkNotClosed();
 
-			if (isSingleton(bean)) {
-				singletonCache.put(beanType, bean);
-				singletonCache.put(bean.getClass(), bean);
+			definitions = resolveNamedDefinitions(beanName);
+			final var existing = namedDefinitions.putIfAbsent(beanName, definitions);
+
+			if (existing != null) {
+				definitions = existing;
 			}
+		}
 
-			if (!isAlreadyInjected(bean)) {
-				injectBeans(bean);
+		for (final var definition : definitions) {
+			if (beanType.isAssignableFrom(definition.getType())) {
+				return (T) getBean(definition);
 			}
 		}
 
-		return (T) bean;
+		// beans that are not indexed can only be found by their type
+		final BeanDefinition definition;
+		try {
+			definition = getDefinition(beanType, type -> beanName.equals(getBeanName(type)));
+		} catch (BeanException e) {
+			throw new BeanException(String.format("Bean '%s' of type '%s' not found", beanName, beanType.getName()), e);
+		}
+
+		// the interface fallback doesn't check the name
+		if (!beanName.equals(getBeanName(definition.getType()))) {
+			throw new BeanException(String.format("Bean '%s' of type '%s' not found", beanName, beanType.getName()));
+		}
+
+		namedDefinitions.merge(beanName, new BeanDefinition[] { definition }, (existing, added) -> {
+			final var merged = Arrays.copyOf(existing, existing.length + 1);
+			merged[existing.length] = added[0];
+			return merged;
+		});
+
+		return (T) getBean(definition);
+	}
+
+	private BeanDefinition[] resolveNamedDefinitions(String beanName) {
+		return getBeanIndex().getEntriesByName(beanName).stream()
+				.sorted(Comparator.comparing(BeanIndex.Entry::getPriority))
+				.map(entry -> getDefinition(loadClass(entry.getImplementation()), null))
+				.toArray(BeanDefinition[]::new);
 	}
 
 	/**
-	 * Checks if the current bean class has the @Processed annotation. If yes this means that the dependencies have already been injected during compile-time or
-	 * though a load-time-weaver.
+	 * Returns the name given by the scope annotation or the simple class name.
 	 */
-	private boolean isAlreadyInjected(Object bean) {
-		return bean.getClass().getAnnotation(Processed.class) != null;
+	private static String getBeanName(Class<?> type) {
+		final String name;
+
+		if (type.isAnnotationPresent(Singleton.class)) {
+			name = type.getAnnotation(Singleton.class).value();
+		} else if (type.isAnnotationPresent(Service.class)) {
+			name = type.getAnnotation(Service.class).value();
+		} else if (type.isAnnotationPresent(Prototype.class)) {
+			name = type.getAnnotation(Prototype.class).value();
+		} else if (type.isAnnotationPresent(Bean.class)) {
+			name = type.getAnnotation(Bean.class).value();
+		} else if (type.isAnnotationPresent(ThreadScoped.class)) {
+			name = type.getAnnotation(ThreadScoped.class).value();
+		} else if (type.isAnnotationPresent(RequestScoped.class)) {
+			name = type.getAnnotation(RequestScoped.class).value();
+		} else if (type.isAnnotationPresent(Pooled.class)) {
+			name = type.getAnnotation(Pooled.class).value();
+		} else {
+			name = "";
+		}
+
+		return name.isBlank() ? type.getSimpleName() : name.trim();
 	}
 
-	private <T> Short getPriority(Provider<T> provider) {
-		final var priority = Optional.ofNullable(provider.type().getAnnotation(Ordered.class));
-		return priority.map(p -> p.value()).orElse((short) Short.MAX_VALUE);
+	/**
+	 * Returns a provider that resolves the bean on its first use, see {@link Provider}.
+	 */
+	public <T> Provider<T> getProvider(Class<T> beanType) {
+		return new LazyBeanProvider<>(this, beanType, false);
 	}
 
-	private <T> boolean isSingleton(T bean) {
-		for (final var annotation : bean.getClass().getAnnotations()) {
-			if (singletonAnnotations.contains(annotation.annotationType())) {
-				return true;
-			}
-		}
+	/**
+	 * Returns a provider that resolves the bean through the current {@link #instance()} and stays bound to it until it is closed. Woven classes keep it
+	 * in a static field, so they don't stay bound to the context that existed when they were initialized.
+	 */
+	public static <T> Provider<T> getCurrentProvider(Class<T> beanType) {
+		return new CurrentContextProvider<>(beanType);
+	}
 
-		return false;
+	int getResolutionVersion() {
+		return resolutionVersion;
 	}
 
-	@SafeVarargs
-	public final void registerSingletonAnnotation(final Class<? extends Annotation>... annotations) {
-		singletonAnnotations.addAll(Arrays.asList(annotations));
+	/**
+	 * Returns a proxy that creates the bean on the first method call. This is used for {@link io.spotnext.inject.annotations.Lazy} fields.
+	 * 
+	 * @param beanType the interface of the bean
+	 */
+	public <T> T getLazyBean(Class<T> beanType) {
+		return new LazyBeanProvider<>(this, beanType, true).createProxy();
 	}
 
-	@SafeVarargs
-	public final void registerPrototypeAnnotation(final Class<? extends Annotation>... annotations) {
-		prototypeAnnotations.addAll(Arrays.asList(annotations));
+	/**
+	 * Eagerly creates all singletons of the bean index on the common {@link ForkJoinPool}, see {@link #preInstantiateSingletons(Executor)}.
+	 */
+	public CompletableFuture<Void> preInstantiateSingletons() {
+		return preInstantiateSingletons(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Eagerly creates all singletons of the bean index. A singleton is only created after all singletons it depends on (directly or through injected
+	 * prototypes) have been created, independent singletons are created in parallel on the given executor. Singletons with a higher {@link Ordered}
+	 * priority are scheduled first.
+	 * 
+	 * @param executor the executor to create the singletons on, eg. a virtual thread executor
+	 * @return a future that completes as soon as all singletons have been created, after which {@link #isWarm()} returns true
+	 */
+	public CompletableFuture<Void> preInstantiateSingletons(Executor executor) {
+		final var start = System.nanoTime();
+		final var singletons = new LinkedHashMap<Class<?>, BeanIndex.Entry>();
+
+		for (final var entry : getBeanIndex().getAllEntries()) {
+			if (getScope(entry.getScope()) == BeanDefinition.Scope.SINGLETON) {
+				singletons.put(loadClass(entry.getImplementation()), entry);
+			}
+		}
+
+		final var futures = new HashMap<Class<?>, CompletableFuture<Void>>();
+		for (final var type : singletons.keySet()) {
+			scheduleSingleton(type, singletons, futures, new HashSet<>(), executor);
+		}
+
+		return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[futures.size()]))
+				.whenComplete((result, exception) -> {
+					if (exception == null) {
+						warm = true;
+						log().info("Context warm: {} singletons created in {} ms", singletons.size(), (System.nanoTime() - start) / 1_000_000);
+
+						final var snapshot = System.getProperty(SNAPSHOT_PROPERTY);
+						if (snapshot != null) {
+							// the singletons are available anyway, so a failed snapshot must not fail the returned future
+							try {
+								writeResolutionSnapshot(Path.of(snapshot));
+							} catch (BeanException e) {
+								log().warn("Could not write resolution snapshot", e);
+							}
+						}
+					} else {
+						log().error("Pre-instantiation of singletons failed", exception);
+					}
+				});
+	}
+
+	/**
+	 * True as soon as all singletons have been created by {@link #preInstantiateSingletons(Executor)}.
+	 */
+	public boolean isWarm() {
+		return warm;
+	}
+
+	private CompletableFuture<Void> scheduleSingleton(Class<?> type, Map<Class<?>, BeanIndex.Entry> singletons,
+			Map<Class<?>, CompletableFuture<Void>> futures, Set<Class<?>> path, Executor executor) {
+
+		var future = futures.get(type);
+
+		if (future != null) {
+			return future;
+		}
+
+		// circular dependencies are not waited for, they are resolved by the singleton creation itself
+		path.add(type);
+		final var dependencies = new ArrayList<CompletableFuture<Void>>();
+		for (final var dependency : getSingletonDependencies(singletons.get(type), new HashSet<>())) {
+			if (singletons.containsKey(dependency) && !path.contains(dependency)) {
+				dependencies.add(scheduleSingleton(dependency, singletons, futures, path, executor));
+			}
+		}
+		path.remove(type);
+
+		final var definition = getDefinition(type, null);
+		future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[dependencies.size()]));
+
+		if (definition.isAsyncInit()) {
+			future = future.thenComposeAsync(v -> initializeAsync(definition), executor).thenAccept(bean -> {
+			});
+		} else {
+			future = future.thenRunAsync(() -> loadSingleton(definition), executor);
+		}
+
+		futures.put(type, future);
+
+		return future;
+	}
+
+	/**
+	 * Returns the implementation types of all singletons the given bean depends on, either directly or through injected prototypes.
+	 */
+	private Set<Class<?>> getSingletonDependencies(BeanIndex.Entry entry, Set<String> visitedPrototypes) {
+		final var dependencies = new HashSet<Class<?>>();
+
+		// Provider and @Lazy dependencies are resolved after the bean has been created, so they don't have to exist before
+		for (final var dependencyType : entry.getEagerDependencies()) {
+			final BeanDefinition definition;
+
+			try {
+				definition = getDefinition(loadClass(dependencyType), null);
+			} catch (BeanException | IllegalStateException e) {
+				// will fail or be handled once the bean is actually created (or has never been resolved, if the context is closed)
+				continue;
+			}
+
+			if (definition.isSingleton()) {
+				dependencies.add(definition.getType());
+			} else if (visitedPrototypes.add(definition.getType().getName())) {
+				final var prototypeEntry = getBeanIndex().getEntry(definition.getType().getName());
+
+				if (prototypeEntry != null) {
+					dependencies.addAll(getSingletonDependencies(prototypeEntry, visitedPrototypes));
+				}
+			}
+		}
+
+		return dependencies;
+	}
+
+	/**
+	 * Returns the created singletons the given bean depends on, either directly or through injected prototypes. Nothing is resolved, as the context is
+	 * already closed: dependencies that have been resolved before use their cached definition, all others (eg. after
+	 * {@link #invalidateResolutionCache()}) are matched against the created singletons by type.
+	 */
+	private Set<Class<?>> getCreatedDependencies(Class<?> type, Set<Class<?>> created, Set<Class<?>> visitedPrototypes) {
+		final var dependencies = new HashSet<Class<?>>();
+
+		for (final var dependencyType : getEagerDependencyTypes(type)) {
+			final var definition = resolvedDefinitions.get(dependencyType);
+
+			if (definition != null) {
+				if (definition.isSingleton()) {
+					dependencies.add(definition.getType());
+				} else if (visitedPrototypes.add(definition.getType())) {
+					dependencies.addAll(getCreatedDependencies(definition.getType(), created, visitedPrototypes));
+				}
+
+				continue;
+			}
+
+			var found = false;
+			for (final var singleton : created) {
+				if (dependencyType.isAssignableFrom(singleton)) {
+					dependencies.add(singleton);
+					found = true;
+				}
+			}
+
+			if (!found) {
+				for (final var entry : getBeanIndex().getEntries(dependencyType.getName())) {
+					if (getScope(entry.getScope()) == BeanDefinition.Scope.PROTOTYPE) {
+						final var prototype = loadClass(entry.getImplementation());
+
+						if (visitedPrototypes.add(prototype)) {
+							dependencies.addAll(getCreatedDependencies(prototype, created, visitedPrototypes));
+						}
+					}
+				}
+			}
+		}
+
+		return dependencies;
+	}
+
+	/**
+	 * Returns the types of the dependencies that are resolved when the given bean is created, see {@link BeanIndex.Entry#getEagerDependencies()}.
+	 * Beans that are not indexed are inspected using their {@link InjectionPlan}.
+	 */
+	private List<Class<?>> getEagerDependencyTypes(Class<?> type) {
+		final var entry = getBeanIndex().getEntry(type.getName());
+
+		if (entry == null) {
+			return InjectionPlan.of(type).getEagerDependencyTypes();
+		}
+
+		final var types = new ArrayList<Class<?>>();
+
+		for (final var dependencyType : entry.getEagerDependencies()) {
+			try {
+				types.add(loadClass(dependencyType));
+			} catch (BeanException e) {
+				// can't have been created either
+			}
+		}
+
+		return types;
+	}
+
+	public void injectBeans(Object object) {
+		final var event = new BeanInjectionEvent();
+		event.begin();
+
+		InjectionPlan.of(object.getClass()).inject(this, object);
+
+		commitInjection(event, object, ContextListener.InjectionMode.REFLECTIVE);
+	}
+
+	/**
+	 * Injects a single field. This is used by generated {@link BeanFactory} implementations for fields they can't access directly.
+	 * 
+	 * @param bean           the bean to inject
+	 * @param declaringClass the class declaring the field
+	 * @param fieldName      the name of the field
+	 */
+	public void injectField(Object bean, Class<?> declaringClass, String fieldName) {
+		InjectionPlan.of(bean.getClass()).inject(this, bean, declaringClass, fieldName);
+	}
+
+	private <T> T loadBean(Class<T> beanType, Predicate<Class<?>> predicate) {
+		final var event = RESOLUTION_EVENT.isEnabled() ? new BeanResolutionEvent() : null;
+
+		if (event != null) {
+			event.begin();
+		}
+
+		final var listeners = this.listeners;
+
+		for (final var listener : listeners) {
+			listener.beanRequested(beanType);
+		}
+
+		final var definition = getDefinition(beanType, predicate);
+		final Object bean;
+
+		if (definition.isSingleton()) {
+			final var cachedBean = getSingleton(definition.getId());
+
+			if (cachedBean != null) {
+				for (final var listener : listeners) {
+					listener.singletonCacheHit(beanType);
+				}
+
+				if (event != null && event.shouldCommit()) {
+					event.beanType = beanType;
+					event.implementationType = cachedBean.getClass();
+					event.scope = "singleton";
+					event.resolutionPath = BeanResolutionEvent.SINGLETON_CACHE;
+					event.commit();
+				}
+
+				return (T) cachedBean;
+			}
+
+			for (final var listener : listeners) {
+				listener.singletonCacheMiss(beanType);
+			}
+
+			bean = definition.isAsyncInit() ? loadAsyncSingleton(definition, beanType) : loadSingleton(definition);
+		} else if (definition.isScoped()) {
+			bean = loadScopedBean(definition);
+		} else if (definition.getScope() == BeanDefinition.Scope.POOLED) {
+			bean = acquirePooledBean(definition);
+		} else {
+			bean = createBean(definition);
+		}
+
+		if (event != null && event.shouldCommit()) {
+			event.beanType = beanType;
+			event.implementationType = definition.getType();
+			event.scope = definition.getScopeName();
+			event.resolutionPath = definition.getSource().name();
+			event.commit();
+		}
+
+		return (T) bean;
+	}
+
+	/**
+	 * Returns the singleton or a new prototype instance of the given bean definition.
+	 */
+	Object getBean(BeanDefinition definition) {
+		return getBean(definition, null);
+	}
+
+	/**
+	 * Returns the singleton or a new prototype instance of the given bean definition.
+	 * 
+	 * @param requestedType the type the bean has been requested by, see {@link #loadAsyncSingleton(BeanDefinition, Class)}
+	 */
+	Object getBean(BeanDefinition definition, Class<?> requestedType) {
+		if (definition.isSingleton()) {
+			final var bean = getSingleton(definition.getId());
+
+			if (bean != null) {
+				return bean;
+			}
+
+			return definition.isAsyncInit() ? loadAsyncSingleton(definition, requestedType) : loadSingleton(definition);
+		} else if (definition.isScoped()) {
+			return loadScopedBean(definition);
+		} else if (definition.getScope() == BeanDefinition.Scope.POOLED) {
+			return acquirePooledBean(definition);
+		}
+
+		return createBean(definition);
+	}
+
+	/**
+	 * Returns the resolution plan for the given type. Unfiltered lookups are cached, so the service discovery and sorting only happens on the first request.
+	 */
+	BeanDefinition getDefinition(Class<?> beanType, Predicate<Class<?>> predicate) {
+		if (predicate == null) {
+			final var definition = resolvedDefinitions.get(beanType);
+
+			if (definition != null) {
+				return definition;
+			}
+		}
+
+		checkNotClosed();
+
+		final var definition = resolveDefinition(beanType, predicate);
+
+		if (predicate == null) {
+			final var existing = resolvedDefinitions.putIfAbsent(beanType, definition);
+
+			if (existing != null) {
+				return existing;
+			}
+		}
+
+		return definition;
+	}
+
+	private BeanDefinition resolveDefinition(Class<?> beanType, Predicate<Class<?>> predicate) {
+		if (pendingSnapshot != null) {
+			loadPendingSnapshot();
+
+			final var snapshotDefinition = resolvedDefinitions.get(beanType);
+			if (predicate == null && snapshotDefinition != null) {
+				return snapshotDefinition;
+			}
+		}
+
+		final var indexedDefinition = resolveIndexedDefinition(beanType, predicate);
+
+		if (indexedDefinition != null) {
+			return indexedDefinition;
+		}
+
+		ServiceLoader.Provider<?> provider = findProvider(beanType, predicate);
+		var source = BeanDefinition.Source.SERVICE_LOADER;
+
+		// try all interfaces
+		if (provider == null) {
+			source = BeanDefinition.Source.INTERFACE_FALLBACK;
+
+			for (var cls : ClassUtil.getAllSuperClasses(beanType, Object.class, false, true)) {
+				for (var iface : cls.getInterfaces()) {
+					provider = findProvider(iface, type -> type.equals(beanType));
+
+					if (provider != null) {
+						break;
+					}
+				}
+
+				if (provider != null) {
+					break;
+				}
+			}
+		}
+
+		if (provider == null) {
+			throw new BeanException(String.format("Bean of type '%s' not found", beanType));
+		}
+
+		final var serviceProvider = provider;
+		final Function<Context, ?> instantiator = context -> {
+			final var plan = InjectionPlan.of(serviceProvider.type());
+
+			return plan.hasConstructor() ? plan.newInstance(context) : serviceProvider.get();
+		};
+
+		return newDefinition(provider.type(), getScope(provider.type()), getPriority(provider), source, instantiator, findFactory(provider.type()));
+	}
+
+	/**
+	 * Resolves the bean using the compile-time {@link BeanIndex}. Only the classes of the checked candidates are loaded.
+	 * 
+	 * @return the definition or null if the type is not indexed
+	 */
+	private BeanDefinition resolveIndexedDefinition(Class<?> beanType, Predicate<Class<?>> predicate) {
+		final var entries = getBeanIndex().getEntries(beanType.getName());
+
+		if (entries.isEmpty()) {
+			return null;
+		}
+
+		warnAboutAmbiguousBeans(beanType, entries.stream()
+				.collect(Collectors.groupingBy(e -> e.getPriority(), Collectors.mapping(e -> e.getImplementation(), Collectors.toList()))));
+
+		// an exact match always wins, just like the interface fallback for concrete types
+		final var candidates = entries.stream()
+				.sorted(Comparator.comparing((BeanIndex.Entry e) -> !e.getImplementation().equals(beanType.getName()))
+						.thenComparing(e -> e.getPriority()))
+				.collect(Collectors.toList());
+
+		for (final var entry : candidates) {
+			final var type = loadClass(entry.getImplementation());
+
+			if (predicate == null || predicate.test(type)) {
+				return newDefinition(type, getScope(entry.getScope()), entry.getPriority(), BeanDefinition.Source.BEAN_INDEX,
+						reflectiveInstantiator(type), findFactory(type));
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Writes all resolved bean definitions to the given file, so they can be loaded by {@link #loadResolutionSnapshot(Path)} on the next start. The file
+	 * is replaced atomically.
+	 */
+	public void writeResolutionSnapshot(Path file) {
+		final var entries = resolvedDefinitions.entrySet().stream()
+				.map(e -> new ResolutionSnapshot.Entry(e.getKey().getName(), e.getValue().getType().getName(), e.getValue().getScope(),
+						e.getValue().getPriority(), e.getValue().getSource(), e.getValue().getFactory() != null))
+				.sorted(Comparator.comparing(e -> e.requestedType))
+				.collect(Collectors.toList());
+
+		try {
+			ResolutionSnapshot.write(file, getFingerprint(), entries);
+			log().info("Wrote resolution snapshot with {} beans to {}", entries.size(), file);
+		} catch (IOException e) {
+			throw new BeanException(String.format("Could not write resolution snapshot to %s", file), e);
+		}
+	}
+
+	/**
+	 * Loads the bean definitions written by {@link #writeResolutionSnapshot(Path)}, so these types are resolved without any discovery. Snapshots of a
+	 * different classpath or with different scope annotations are ignored, so register custom scope annotations before.
+	 * 
+	 * @return true if the snapshot has been loaded, false if it doesn't exist, is outdated or invalid
+	 */
+	public boolean loadResolutionSnapshot(Path file) {
+		if (!Files.isRegularFile(file)) {
+			return false;
+		}
+
+		try {
+			final var entries = ResolutionSnapshot.read(file, getFingerprint());
+
+			if (entries == null) {
+				log().info("Ignoring outdated resolution snapshot {}", file);
+				return false;
+			}
+
+			final var definitions = new HashMap<Class<?>, BeanDefinition>();
+			for (final var entry : entries) {
+				final var type = loadClass(entry.implementation);
+
+				definitions.put(loadClass(entry.requestedType), newDefinition(type, entry.scope, entry.priority, entry.source,
+						reflectiveInstantiator(type), entry.factory ? findFactory(type) : null));
+			}
+
+			definitions.forEach(resolvedDefinitions::putIfAbsent);
+			log().info("Loaded resolution snapshot with {} beans from {}", definitions.size(), file);
+
+			return true;
+		} catch (IOException | BeanException e) {
+			log().warn(String.format("Ignoring invalid resolution snapshot %s", file), e);
+			return false;
+		}
+	}
+
+	private void loadPendingSnapshot() {
+		synchronized (this) {
+			final var snapshot = pendingSnapshot;
+
+			if (snapshot != null) {
+				pendingSnapshot = null;
+				loadResolutionSnapshot(snapshot);
+			}
+		}
+	}
+
+	private String getFingerprint() {
+		final var scopes = new ArrayList<String>();
+		singletonAnnotations.forEach(a -> scopes.add("singleton:" + a.getName()));
+		prototypeAnnotations.forEach(a -> scopes.add("prototype:" + a.getName()));
+
+		return ResolutionSnapshot.fingerprint(getClassLoader(), scopes);
+	}
+
+	private BeanIndex getBeanIndex() {
+		var index = beanIndex;
+
+		if (index == null) {
+			synchronized (this) {
+				index = beanIndex;
+
+				if (index == null) {
+					index = BeanIndex.load(getClassLoader());
+					beanIndex = index;
+				}
+			}
+		}
+
+		return index;
+	}
+
+	private Class<?> loadClass(String className) {
+		try {
+			return Class.forName(className, false, getClassLoader());
+		} catch (ClassNotFoundException e) {
+			throw new BeanException(String.format("Indexed bean class '%s' not found", className), e);
+		}
+	}
+
+	/**
+	 * Instantiates the bean reflectively. The {@link InjectionPlan} is only created on first use, which never happens for beans with a generated
+	 * {@link BeanFactory}.
+	 */
+	private static Function<Context, ?> reflectiveInstantiator(Class<?> type) {
+		return context -> InjectionPlan.of(type).newInstance(context);
+	}
+
+	/**
+	 * Returns the {@link BeanFactory} generated by the {@link io.spotnext.inject.processor.BeanProcessor} for the given bean type, if there is one.
+	 */
+	private BeanFactory<Object> findFactory(Class<?> type) {
+		try {
+			final var factoryType = Class.forName(type.getName() + BeanFactory.CLASS_NAME_SUFFIX, true, type.getClassLoader());
+
+			if (!BeanFactory.class.isAssignableFrom(factoryType)) {
+				return null;
+			}
+
+			return (BeanFactory<Object>) factoryType.getConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (ReflectiveOperationException | LinkageError e) {
+			log().warn("Could not instantiate bean factory for {}, falling back to reflection: {}", type.getName(), e.getMessage());
+			return null;
+		}
+	}
+
+	private void warnAboutAmbiguousBeans(Class<?> beanType, Map<Short, List<String>> beansGroupedByPriority) {
+		for (var entry : beansGroupedByPriority.entrySet()) {
+			final var count = entry.getValue().size();
+			if (count > 1) {
+				final var beansStr = String.join(", ", entry.getValue());
+				log().warn("{} beans implementing {} with the same priority {} found: {}", count, beanType, entry.getKey(), beansStr);
+			}
+		}
+	}
+
+	/**
+	 * Discards all cached resolution plans and the bean index, eg. after the context classloader's resources have changed. Already created singletons are
+	 * kept.
+	 */
+	public void invalidateResolutionCache() {
+		resolutionVersion++;
+		beanIndex = null;
+		resolvedDefinitions.clear();
+		beanLists.clear();
+		namedDefinitions.clear();
+	}
+
+	/**
+	 * Returns the bean without blocking the calling thread: singletons are created on the async executor (virtual threads if available), prototypes as
+	 * well. Thread and request scoped beans are resolved on the calling thread, as they belong to its scopes.
+	 */
+	public <T> CompletableFuture<T> getBeanAsync(Class<T> beanType) {
+		final var definition = getDefinition(beanType, null);
+
+		if (definition.isSingleton()) {
+			final var bean = getSingleton(definition.getId());
+
+			return (CompletableFuture<T>) (bean != null ? CompletableFuture.completedFuture(bean) : initializeAsync(definition));
+		} else if (definition.isScoped()) {
+			return CompletableFuture.completedFuture((T) getBean(definition));
+		}
+
+		return CompletableFuture.supplyAsync(() -> (T) getBean(definition), getAsyncExecutor());
+	}
+
+	/**
+	 * Sets the executor used for {@link AsyncInit} beans and {@link #getBeanAsync(Class)}. By default a virtual thread per task executor is used on
+	 * Java versions that support it, otherwise a cached pool of daemon threads.
+	 */
+	public void setAsyncExecutor(Executor executor) {
+		this.asyncExecutor = executor;
+	}
+
+	private Executor getAsyncExecutor() {
+		final var executor = asyncExecutor;
+
+		return executor != null ? executor : AsyncExecutorHolder.EXECUTOR;
+	}
+
+	/**
+	 * Waits for the {@link AsyncInit} singleton. If it is requested while another bean is being created on this thread, the asynchronous initialization
+	 * is never waited for, as it might in turn wait for the bean being created: beans requested through an interface are returned as a proxy, so the
+	 * dependent bean can be finished in the meantime. If the instance itself is needed, it is created on the current thread like any other singleton,
+	 * or waited for with the usual detection of threads waiting for each other.
+	 * 
+	 * @param requestedType the requested interface, or null if the instance itself is needed
+	 */
+	private Object loadAsyncSingleton(BeanDefinition definition, Class<?> requestedType) {
+		if (creationDepth.get()[0] == 0) {
+			return AsyncBeanProxy.await(initializeAsync(definition));
+		}
+
+		final var creation = singletonsInCreation.get(definition.getType());
+
+		// circular dependencies on the creating thread are resolved like for all other singletons
+		if (requestedType == null || !requestedType.isInterface() || (creation != null && creation.creator == Thread.currentThread())) {
+			return loadSingleton(definition);
+		}
+
+		final var future = initializeAsync(definition);
+
+		return future.isDone() ? AsyncBeanProxy.await(future) : AsyncBeanProxy.create(requestedType, future);
+	}
+
+	/**
+	 * Starts the creation of the singleton on the async executor, unless it is already in progress.
+	 */
+	private CompletableFuture<Object> initializeAsync(BeanDefinition definition) {
+		final var type = definition.getType();
+		final var future = new CompletableFuture<Object>();
+		final var existing = asyncInitializations.putIfAbsent(type, future);
+
+		if (existing != null) {
+			return existing;
+		}
+
+		try {
+			getAsyncExecutor().execute(() -> {
+				try {
+					future.complete(loadSingleton(definition));
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				} finally {
+					asyncInitializations.remove(type, future);
+				}
+			});
+		} catch (RuntimeException e) {
+			asyncInitializations.remove(type, future);
+			throw e;
+		}
+
+		return future;
+	}
+
+	/**
+	 * Returns the bean with the given id, see {@link #getBeanId(Class)}. Singletons are a single array access, listeners and flight recorder events are
+	 * skipped for them.
+	 * 
+	 * @throws BeanException if the id is unknown
+	 */
+	public <T> T getBean(int beanId) {
+		return getBean(beanId, null);
+	}
+
+	/**
+	 * Returns the bean with the given id, like {@link #getBean(int)}. The type the id has been resolved for is not looked up, it is only needed if an
+	 * {@link AsyncInit} singleton is requested while another bean is being created: if it is an interface, a proxy is returned instead of waiting for
+	 * the initialization.
+	 * 
+	 * @param beanType the type passed to {@link #getBeanId(Class)}, or null
+	 * @throws BeanException if the id is unknown
+	 */
+	public <T> T getBean(int beanId, Class<T> beanType) {
+		final var bean = getSingleton(beanId);
+
+		if (bean != null) {
+			return (T) bean;
+		}
+
+		final var definitions = definitionTable;
+
+		if (beanId < 0 || beanId >= definitions.length || definitions[beanId] == null) {
+			throw new BeanException(String.format("Unknown bean id %s", beanId));
+		}
+
+		return (T) getBean(definitions[beanId], beanType);
+	}
+
+	/**
+	 * Resolves the given type and returns the id of its implementation. Ids are dense and stable for the lifetime of the context, so they can be cached
+	 * and passed to {@link #getBean(int)} to skip the resolution on every lookup.
+	 */
+	public int getBeanId(Class<?> beanType) {
+		return getDefinition(beanType, null).getId();
+	}
+
+	private Object getSingleton(int id) {
+		final var table = singletonTable;
+
+		return id < table.length() ? table.get(id) : null;
+	}
+
+	private void putSingleton(int id, Object bean) {
+		synchronized (tableLock) {
+			var table = singletonTable;
+
+			if (id >= table.length()) {
+				final var grown = new AtomicReferenceArray<Object>(Math.max(id + 1, table.length() * 2));
+
+				for (int i = 0; i < table.length(); i++) {
+					grown.set(i, table.get(i));
+				}
+
+				table = grown;
+				singletonTable = grown;
+			}
+
+			table.set(id, bean);
+		}
+	}
+
+	/**
+	 * Returns the singleton instance of the given bean definition, creating it exactly once even if requested concurrently. If another thread is already
+	 * creating the singleton, the current thread waits until it is initialized. A singleton is only handed out before its dependencies have been
+	 * injected to the thread creating it, for circular dependencies.
+	 */
+	private Object loadSingleton(BeanDefinition definition) {
+		final var bean = getSingleton(definition.getId());
+
+		if (bean != null) {
+			return bean;
+		}
+
+		for (;;) {
+			try {
+				return createOrAwaitSingleton(definition);
+			} catch (RuntimeException e) {
+				final var circularWait = CircularWait.find(e);
+
+				// singletons still being created by this thread might be needed by the other threads, so only the outermost creation retries
+				if (circularWait == null || creationDepth.get()[1] > 0) {
+					throw e;
+				}
+
+				circularWait.awaitOtherThread();
+			}
+		}
+	}
+
+	private Object createOrAwaitSingleton(BeanDefinition definition) {
+		final var type = definition.getType();
+		final var current = Thread.currentThread();
+		var creation = singletonsInCreation.get(type);
+
+		if (creation == null) {
+			checkNotClosed();
+
+			final var newCreation = new SingletonCreation(type, current);
+			creation = singletonsInCreation.putIfAbsent(type, newCreation);
+
+			if (creation == null) {
+				// the previous creation might have finished in the meantime
+				final var bean = getSingleton(definition.getId());
+
+				if (bean != null) {
+					singletonsInCreation.remove(type, newCreation);
+					newCreation.initialized.complete(bean);
+
+					return bean;
+				}
+
+				return createSingleton(definition, newCreation);
+			}
+		}
+
+		if (creation.creator == current) {
+			// constructor dependencies can't be circular, as there is no instance that could be injected yet
+			if (creation.instance == null) {
+				throw new BeanException(String.format("Circular constructor dependency on singleton '%s'", type.getName()));
+			}
+
+			return creation.instance;
+		}
+
+		return awaitSingleton(definition, creation);
+	}
+
+	private Object createSingleton(BeanDefinition definition, SingletonCreation creation) {
+		final var type = definition.getType();
+
+		try {
+			final var event = new BeanInstantiationEvent();
+			event.begin();
+
+			final var listeners = this.listeners;
+			final var start = listeners.length > 0 ? System.nanoTime() : 0L;
+
+			for (final var listener : listeners) {
+				listener.beanCreationStarted(type, true);
+			}
+
+			final var depth = creationDepth.get();
+			depth[0]++;
+			depth[1]++;
+
+			final Object bean;
+			try {
+				bean = definition.newInstance(this);
+				creation.instance = bean;
+
+				injectDependencies(definition, bean);
+				LifecycleCallbacks.of(type).postConstruct(bean);
+			} finally {
+				depth[0]--;
+				depth[1]--;
+			}
+
+			putSingleton(definition.getId(), bean);
+			creation.initialized.complete(bean);
+
+			if (listeners.length > 0) {
+				fireBeanCreated(listeners, type, true, System.nanoTime() - start);
+			}
+
+			commitInstantiation(event, definition);
+
+			return bean;
+		} catch (RuntimeException | Error e) {
+			creation.initialized.completeExceptionally(e);
+			throw e;
+		} finally {
+			singletonsInCreation.remove(type, creation);
+		}
+	}
+
+	/**
+	 * Waits until the singleton created by another thread is initialized. If the creating thread waits for the current thread, directly or through
+	 * other threads, the current thread backs off: it discards all singletons it is creating and retries once the other thread is done, see
+	 * {@link CircularWait}. The other threads then create the discarded singletons themselves, so the whole cycle is resolved on a single thread.
+	 */
+	private Object awaitSingleton(BeanDefinition definition, SingletonCreation creation) {
+		final var type = definition.getType();
+		final var current = Thread.currentThread();
+
+		synchronized (waitingThreads) {
+			final var cycle = findCircularWait(creation, current);
+
+			if (cycle != null) {
+				throw new CircularWait(cycle, creation);
+			}
+
+			waitingThreads.put(current, creation);
+		}
+
+		try {
+			return creation.initialized.get();
+		} catch (ExecutionException e) {
+			if (CircularWait.find(e.getCause()) == null) {
+				throw new BeanException(String.format("Singleton '%s' could not be created", type.getName()), e.getCause());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BeanException(String.format("Interrupted while waiting for singleton '%s'", type.getName()), e);
+		} finally {
+			synchronized (waitingThreads) {
+				waitingThreads.remove(current);
+			}
+		}
+
+		// the creating thread backed off, so this thread creates the singleton instead
+		return loadSingleton(definition);
+	}
+
+	/**
+	 * Follows the creations the creating threads are waiting for, starting with the given one, and returns the types of the singletons if they lead
+	 * back to the given thread. Finished creations end the search, as their creating threads might not have removed their wait yet.
+	 * 
+	 * @return the cycle, like "A -> B -> A", or null
+	 */
+	private String findCircularWait(SingletonCreation creation, Thread thread) {
+		final var cycle = new StringJoiner(" -> ");
+		var next = creation;
+
+		for (int i = 0; next != null && !next.initialized.isDone() && i <= waitingThreads.size(); i++) {
+			cycle.add(next.type.getName());
+
+			if (next.creator == thread) {
+				return cycle.add(creation.type.getName()).toString();
+			}
+
+			next = waitingThreads.get(next.creator);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the instance of the thread or request scoped bean of the current thread, creating it on first access.
+	 */
+	private Object loadScopedBean(BeanDefinition definition) {
+		final ScopeStorage storage;
+
+		if (definition.getScope() == BeanDefinition.Scope.THREAD) {
+			storage = threadScope.get();
+		} else {
+			final var scope = requestScope.get();
+
+			if (scope == null) {
+				throw new BeanException(String.format("Request scoped bean '%s' requested outside of a request scope", definition.getType().getName()));
+			}
+
+			storage = scope.getStorage();
+		}
+
+		var bean = storage.get(definition.getScopedId());
+
+		if (bean == null) {
+			bean = createBean(definition);
+			storage.put(definition.getScopedId(), bean, scopedIdCount.get());
+		}
+
+		return bean;
+	}
+
+	/**
+	 * Starts a new request scope on the current thread, which lasts until the returned scope is closed. If there is already an active request scope, it
+	 * is suspended until the new one is closed. The storage of the last closed scope of the thread is reused, so only the returned handle is allocated.
+	 */
+	public RequestScope enterRequestScope() {
+		checkNotClosed();
+
+		var storage = idleRequestStorage.get();
+
+		if (storage != null) {
+			idleRequestStorage.set(null);
+		} else {
+			storage = new ScopeStorage();
+		}
+
+		final var scope = new RequestScope(this, requestScope.get(), storage);
+		requestScope.set(scope);
+
+		return scope;
+	}
+
+	/**
+	 * Returns the active request scope of the current thread, or null if there is none.
+	 */
+	public RequestScope getRequestScope() {
+		return requestScope.get();
+	}
+
+	/**
+	 * Keeps the storage of a closed request scope for the next scope of the current thread. If nested scopes have been closed, the outermost one is
+	 * kept, as it has been closed last.
+	 */
+	void releaseRequestStorage(ScopeStorage storage) {
+		idleRequestStorage.set(storage);
+	}
+
+	void exitRequestScope(RequestScope scope) {
+		if (requestScope.get() != scope) {
+			throw new IllegalStateException("Request scope is not the active scope of the current thread");
+		}
+
+		if (scope.getEnclosing() != null) {
+			requestScope.set(scope.getEnclosing());
+		} else {
+			requestScope.remove();
+		}
+	}
+
+	/**
+	 * Discards all thread scoped beans of the current thread, calling their {@link PreDestroy} methods.
+	 */
+	public void clearThreadScope() {
+		final var storage = threadScope.get();
+		threadScope.remove();
+
+		storage.forEach(this::destroy);
+	}
+
+	/**
+	 * Returns an idle instance of the pooled bean, or a new one if the pool is empty.
+	 */
+	private Object acquirePooledBean(BeanDefinition definition) {
+		final var type = definition.getType();
+		var pool = pools.get(type);
+
+		if (pool == null) {
+			pool = pools.computeIfAbsent(type, t -> new BeanPool(t, t.getAnnotation(Pooled.class).size()));
+		}
+
+		final var bean = pool.acquire();
+
+		return bean != null ? bean : createBean(definition);
+	}
+
+	/**
+	 * Returns an instance of a {@link Pooled} bean to its pool, after resetting it if it implements {@link Poolable}. The caller must not use the
+	 * instance afterwards and release it only once.
+	 * 
+	 * @throws IllegalArgumentException if the bean is not pooled
+	 */
+	public void release(Object bean) {
+		final var pool = pools.get(bean.getClass());
+
+		if (pool == null) {
+			throw new IllegalArgumentException(String.format("%s is not a pooled bean", bean.getClass().getName()));
+		}
+
+		if (bean instanceof Poolable) {
+			try {
+				((Poolable) bean).reset();
+			} catch (RuntimeException e) {
+				log().warn(String.format("Could not reset pooled bean %s, discarding it", bean.getClass().getName()), e);
+				pool.discard();
+				destroy(bean);
+				return;
+			}
+		}
+
+		if (!pool.release(bean)) {
+			destroy(bean);
+		}
+	}
+
+	/**
+	 * Returns the pools of all {@link Pooled} beans that have been requested so far, eg. to monitor their hit ratios.
+	 */
+	public Collection<BeanPool> getPools() {
+		return Collections.unmodifiableCollection(pools.values());
+	}
+
+	private Object createBean(BeanDefinition definition) {
+		checkNotClosed();
+
+		final var event = new BeanInstantiationEvent();
+		event.begin();
+
+		final var listeners = this.listeners;
+		final var start = listeners.length > 0 ? System.nanoTime() : 0L;
+
+		for (final var listener : listeners) {
+			listener.beanCreationStarted(definition.getType(), false);
+		}
+
+		final var depth = creationDepth.get();
+		depth[0]++;
+
+		final Object bean;
+		try {
+			bean = definition.newInstance(this);
+			injectDependencies(definition, bean);
+			LifecycleCallbacks.of(definition.getType()).postConstruct(bean);
+		} finally {
+			depth[0]--;
+		}
+
+		if (listeners.length > 0) {
+			fireBeanCreated(listeners, definition.getType(), false, System.nanoTime() - start);
+		}
+
+		commitInstantiation(event, definition);
+
+		return bean;
+	}
+
+	private static void commitInstantiation(BeanInstantiationEvent event, BeanDefinition definition) {
+		if (event.shouldCommit()) {
+			event.beanType = definition.getType();
+			event.scope = definition.getScopeName();
+			event.commit();
+		}
+	}
+
+	private static void fireBeanCreated(ContextListener[] listeners, Class<?> type, boolean singleton, long duration) {
+		for (final var listener : listeners) {
+			listener.beanCreated(type, singleton, duration);
+		}
+	}
+
+	/**
+	 * Injects the dependencies using the generated factory if available, otherwise reflectively. Woven beans have already been injected on
+	 * construction, so they are reported as {@link ContextListener.InjectionMode#WOVEN} even if they have a factory.
+	 */
+	private void injectDependencies(BeanDefinition definition, Object bean) {
+		final var event = new BeanInjectionEvent();
+		event.begin();
+
+		final var factory = definition.getFactory();
+		final ContextListener.InjectionMode mode;
+
+		if (isAlreadyInjected(bean)) {
+			mode = ContextListener.InjectionMode.WOVEN;
+		} else if (factory != null) {
+			factory.inject(this, bean);
+			mode = ContextListener.InjectionMode.FACTORY;
+		} else {
+			InjectionPlan.of(bean.getClass()).inject(this, bean);
+			mode = ContextListener.InjectionMode.REFLECTIVE;
+		}
+
+		for (final var listener : listeners) {
+			listener.beanInjected(definition.getType(), mode);
+		}
+
+		commitInjection(event, bean, mode);
+	}
+
+	private static void commitInjection(BeanInjectionEvent event, Object bean, ContextListener.InjectionMode mode) {
+		if (event.shouldCommit()) {
+			event.beanType = bean.getClass();
+			event.injectionMode = mode.name();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Finds the bean provider with the highest priority for the given type.
+	 * 
+	 * @param beanType  the requested type
+	 * @param predicate an optional filter on the implementation types
+	 * @return the provider or null if none was found
+	 */
+	private <T> ServiceLoader.Provider<? extends T> findProvider(Class<T> beanType, Predicate<Class<?>> predicate) {
+		final var listeners = this.listeners;
+		final var start = listeners.length > 0 ? System.nanoTime() : 0L;
+
+		final var beans = ServiceLoader.load(beanType, getClassLoader());
+
+		warnAboutAmbiguousBeans(beanType, beans.stream()
+				.collect(Collectors.groupingBy(b -> getPriority(b), Collectors.mapping(b -> b.type().getName(), Collectors.toList()))));
+
+		var stream = beans.stream()
+				.sorted((s1, s2) -> getPriority(s1).compareTo(getPriority(s2)));
+
+		if (predicate != null) {
+			stream = stream.filter(p -> predicate.test(p.type()));
+		}
+
+		final var provider = stream.findFirst().orElse(null);
+
+		if (listeners.length > 0) {
+			final var duration = System.nanoTime() - start;
+
+			for (final var listener : listeners) {
+				listener.serviceLoaderScanned(beanType, duration);
+			}
+		}
+
+		return provider;
+	}
+
+	/**
+	 * Checks if the current bean class has the @Processed annotation. If yes this means that the dependencies have already been injected during compile-time or
+	 * though a load-time-weaver.
+	 */
+	private boolean isAlreadyInjected(Object bean) {
+		// not through the InjectionPlan, which would reflect on beans that have a generated factory
+		return bean.getClass().isAnnotationPresent(Processed.class);
+	}
+
+	private <T> Short getPriority(ServiceLoader.Provider<T> provider) {
+		final var priority = Optional.ofNullable(provider.type().getAnnotation(Ordered.class));
+		return priority.map(p -> p.value()).orElse((short) Short.MAX_VALUE);
+	}
+
+	private BeanDefinition.Scope getScope(String scopeAnnotation) {
+		if (ThreadScoped.class.getName().equals(scopeAnnotation)) {
+			return BeanDefinition.Scope.THREAD;
+		} else if (RequestScoped.class.getName().equals(scopeAnnotation)) {
+			return BeanDefinition.Scope.REQUEST;
+		} else if (Pooled.class.getName().equals(scopeAnnotation)) {
+			return BeanDefinition.Scope.POOLED;
+		}
+
+		for (final var annotation : singletonAnnotations) {
+			if (annotation.getName().equals(scopeAnnotation)) {
+				return BeanDefinition.Scope.SINGLETON;
+			}
+		}
+
+		return BeanDefinition.Scope.PROTOTYPE;
+	}
+
+	private BeanDefinition.Scope getScope(Class<?> beanType) {
+		if (beanType.isAnnotationPresent(ThreadScoped.class)) {
+			return BeanDefinition.Scope.THREAD;
+		} else if (beanType.isAnnotationPresent(RequestScoped.class)) {
+			return BeanDefinition.Scope.REQUEST;
+		} else if (beanType.isAnnotationPresent(Pooled.class)) {
+			return BeanDefinition.Scope.POOLED;
+		}
+
+		final var annotations = singletonAnnotations;
+
+		for (final var annotation : beanType.getAnnotations()) {
+			if (annotations.contains(annotation.annotationType())) {
+				return BeanDefinition.Scope.SINGLETON;
+			}
+		}
+
+		return BeanDefinition.Scope.PROTOTYPE;
+	}
+
+	/**
+	 * Creates a bean definition with the dense id of its implementation, thread and request scoped beans additionally get their scoped id.
+	 */
+	private BeanDefinition newDefinition(Class<?> type, BeanDefinition.Scope scope, short priority, BeanDefinition.Source source,
+			Function<Context, ?> instantiator, BeanFactory<Object> factory) {
+		final var scopedId = scope == BeanDefinition.Scope.THREAD || scope == BeanDefinition.Scope.REQUEST
+				? scopedIds.computeIfAbsent(type, t -> scopedIdCount.getAndIncrement())
+				: -1;
+
+		final var id = beanIds.computeIfAbsent(type, t -> beanIdCount.getAndIncrement());
+		final var definition = new BeanDefinition(type, id, scope, scopedId, priority, source, instantiator, factory);
+
+		synchronized (tableLock) {
+			var definitions = definitionTable;
+
+			if (id >= definitions.length) {
+				definitions = Arrays.copyOf(definitions, Math.max(id + 1, definitions.length * 2));
+				definitionTable = definitions;
+			}
+
+			definitions[id] = definition;
+		}
+
+		return definition;
+	}
+
+	/**
+	 * Registers a listener that is notified about bean lookups, creations and injections, see {@link ContextListener}.
+	 */
+	public synchronized void addListener(ContextListener listener) {
+		final var newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+		newListeners[listeners.length] = listener;
+
+		listeners = newListeners;
+	}
+
+	public synchronized void removeListener(ContextListener listener) {
+		listeners = Arrays.stream(listeners)
+				.filter(l -> l != listener)
+				.toArray(ContextListener[]::new);
+	}
+
+	/**
+	 * Freezes the registered scope annotations. Afterwards calls to {@link #registerSingletonAnnotation(Class...)} and
+	 * {@link #registerPrototypeAnnotation(Class...)} fail. Call this after bootstrapping the application.
+	 */
+	public synchronized void seal() {
+		sealed = true;
+	}
+
+	public boolean isSealed() {
+		return sealed;
+	}
+
+	@SafeVarargs
+	public final synchronized void registerSingletonAnnotation(final Class<? extends Annotation>... annotations) {
+		checkNotSealed();
+		singletonAnnotations = merge(singletonAnnotations, annotations);
+	}
+
+	@SafeVarargs
+	public final synchronized void registerPrototypeAnnotation(final Class<? extends Annotation>... annotations) {
+		checkNotSealed();
+		prototypeAnnotations = merge(prototypeAnnotations, annotations);
+	}
+
+	private void checkNotSealed() {
+		if (sealed) {
+			throw new IllegalStateException("Context is sealed, no more scope annotations can be registered");
+		}
+	}
+
+	private static Set<Class<? extends Annotation>> merge(Set<Class<? extends Annotation>> existing, Class<? extends Annotation>[] annotations) {
+		final var merged = new HashSet<>(existing);
+		merged.addAll(Arrays.asList(annotations));
+
+		return Set.copyOf(merged);
+	}
+
+	/**
+	 * A singleton that is currently being created by a thread.
+	 */
+	private static final class SingletonCreation {
+		final Class<?> type;
+		final Thread creator;
+
+		/**
+		 * Completes once the singleton has been injected and initialized.
+		 */
+		final CompletableFuture<Object> initialized = new CompletableFuture<>();
+
+		/**
+		 * The instance as soon as its constructor has returned, before its dependencies are injected.
+		 */
+		volatile Object instance;
+
+		SingletonCreation(Class<?> type, Thread creator) {
+			this.type = type;
+			this.creator = creator;
+		}
+	}
+
+	/**
+	 * Thrown by a thread that would otherwise wait for a singleton whose creating thread waits for it in turn. It discards all singletons the thread is
+	 * creating, which makes the threads waiting for them create them themselves. The thread then waits until the creation it wanted to wait for is
+	 * finished and retries.
+	 */
+	private static final class CircularWait extends BeanException {
+		private static final long serialVersionUID = 1L;
+
+		private final transient SingletonCreation awaited;
+
+		CircularWait(String cycle, SingletonCreation awaited) {
+			super(String.format("Circular dependency between singletons created on different threads: %s", cycle));
+			this.awaited = awaited;
+		}
+
+		/**
+		 * Waits until the singleton this thread backed off from is initialized, or failed.
+		 */
+		void awaitOtherThread() {
+			try {
+				awaited.initialized.handle((bean, e) -> bean).get();
+			} catch (ExecutionException e) {
+				// can't happen, the failure is handled
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new BeanException(String.format("Interrupted while waiting for singleton '%s'", awaited.type.getName()), e);
+			}
+		}
+
+		static CircularWait find(Throwable exception) {
+			for (var cause = exception; cause != null; cause = cause.getCause()) {
+				if (cause instanceof CircularWait) {
+					return (CircularWait) cause;
+				}
+			}
+
+			return null;
+		}
+	}
+
+	/**
+	 * The default executor for asynchronous bean creation, created on first use.
+	 */
+	private static final class AsyncExecutorHolder {
+		private static final Executor EXECUTOR = createExecutor();
+
+		private static Executor createExecutor() {
+			try {
+				// virtual threads are only available on newer Java versions
+				final var factory = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+						MethodType.methodType(ExecutorService.class));
+
+				return (Executor) factory.invoke();
+			} catch (Throwable e) {
+				return Executors.newCachedThreadPool(runnable -> {
+					final var thread = new Thread(runnable, "inject-async");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+		}
+	}
+
+	/**
+	 * Weakly references a classloader and compares it by identity.
+	 */
+	private static final class ClassLoaderKey extends WeakReference<ClassLoader> {
+		private final int hash;
+
+		ClassLoaderKey(ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+			super(classLoader, queue);
+			this.hash = System.identityHashCode(classLoader);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+
+			if (!(obj instanceof ClassLoaderKey)) {
+				return false;
+			}
+
+			final var classLoader = get();
+			return classLoader != null && classLoader == ((ClassLoaderKey) obj).get();
+		}
 	}
 }
@@ -0,0 +1,94 @@
+package io.spotnext.inject;
+
+/**
+ * Receives notifications about the work done by a {@link Context}, eg. to collect metrics. All methods have an empty default implementation, so listeners
+ * only need to implement the events they are interested in. Listeners are called synchronously on the thread doing the work and must be thread-safe and
+ * fast.
+ * <p>
+ * Register listeners with {@link Context#addListener(ContextListener)}. Without registered listeners the context doesn't even measure the durations.
+ */
+public interface ContextListener {
+
+	/**
+	 * How the dependencies of a bean have been injected.
+	 */
+	enum InjectionMode {
+		/** By the {@link BeanFactory} generated by the annotation processor. */
+		FACTORY,
+		/** Nothing to do, the class has been woven by the {@link io.spotnext.inject.instrumentation.InjectionTransformer}. */
+		WOVEN,
+		/** Reflectively using the cached method handles. */
+		REFLECTIVE
+	}
+
+	/**
+	 * Called for every bean lookup by type.
+	 *
+	 * @param beanType the requested type
+	 */
+	default void beanRequested(Class<?> beanType) {
+	}
+
+	/**
+	 * Called if a requested singleton has been found in the singleton cache.
+	 *
+	 * @param beanType the requested type
+	 */
+	default void singletonCacheHit(Class<?> beanType) {
+	}
+
+	/**
+	 * Called if a requested singleton was not cached yet, either because it has not been created yet or because it has not been requested by this type
+	 * before.
+	 *
+	 * @param beanType the requested type
+	 */
+	default void singletonCacheMiss(Class<?> beanType) {
+	}
+
+	/**
+	 * Called before a bean is instantiated. Dependencies that are created while building the bean are reported on the same thread before the matching
+	 * {@link #beanCreated(Class, boolean, long)} call, so listeners can reconstruct the creation tree. If the creation fails, there is no matching call.
+	 *
+	 * @param beanType  the implementation type
+	 * @param singleton true for singletons, false for prototypes
+	 */
+	default void beanCreationStarted(Class<?> beanType, boolean singleton) {
+	}
+
+	/**
+	 * Called after a bean has been instantiated and injected.
+	 *
+	 * @param beanType      the implementation type
+	 * @param singleton     true for singletons, false for prototypes
+	 * @param durationNanos the time it took to create and inject the bean, including the creation of its dependencies
+	 */
+	default void beanCreated(Class<?> beanType, boolean singleton, long durationNanos) {
+	}
+
+	/**
+	 * Called after the {@link java.util.ServiceLoader} has been used to find the implementations of a type that is not in the {@link BeanIndex}.
+	 *
+	 * @param serviceType   the type that has been looked up
+	 * @param durationNanos the time the scan took
+	 */
+	default void serviceLoaderScanned(Class<?> serviceType, long durationNanos) {
+	}
+
+	/**
+	 * Called after the dependencies of a bean have been injected.
+	 *
+	 * @param beanType the implementation type
+	 * @param mode     how the dependencies have been injected
+	 */
+	default void beanInjected(Class<?> beanType, InjectionMode mode) {
+	}
+
+	/**
+	 * Called when the context is closed, after which the listener is removed.
+	 *
+	 * @param context the closed context
+	 */
+	default void contextClosed(Context context) {
+	}
+}
@@ -0,0 +1,78 @@
+package io.spotnext.inject;
+
+/**
+ * The {@link Provider} that woven classes keep in a static field for every injected field. It is bound to the bean definition of the current
+ * {@link Context#instance()} on first use, singletons are bound to their instance once created. Further calls therefore neither look up the context
+ * nor resolve the type. The provider is only bound again once the context has been closed or its resolution cache has been invalidated, so a class
+ * that outlives its context never hands out beans of a closed context.
+ */
+final class CurrentContextProvider<T> implements Provider<T> {
+	private final Class<T> beanType;
+
+	private volatile Binding<T> binding;
+
+	CurrentContextProvider(Class<T> beanType) {
+		this.beanType = beanType;
+	}
+
+	@Override
+	public T get() {
+		var current = binding;
+
+		if (current == null || !current.isValid()) {
+			current = bind();
+		}
+
+		final var singleton = current.singleton;
+
+		if (singleton != null) {
+			return singleton;
+		}
+
+		final var bean = (T) current.context.getBean(current.definition, beanType);
+
+		// an async singleton might still be a proxy
+		if (current.definition.isSingleton() && current.definition.getType().isInstance(bean)) {
+			binding = new Binding<>(current.context, current.resolutionVersion, current.definition, bean);
+		}
+
+		return bean;
+	}
+
+	private Binding<T> bind() {
+		final var context = Context.instance();
+
+		// the version is read first, so a concurrent invalidation leads to another resolution on the next call
+		final var version = context.getResolutionVersion();
+		final var current = new Binding<T>(context, version, context.getDefinition(beanType, null), null);
+		binding = current;
+
+		return current;
+	}
+
+	@Override
+	public String toString() {
+		return "Provider<" + beanType.getName() + ">";
+	}
+
+	/**
+	 * The bean definition in a context and the singleton instance, replaced as a whole so it is always consistent.
+	 */
+	private static final class Binding<T> {
+		final Context context;
+		final int resolutionVersion;
+		final BeanDefinition definition;
+		final T singleton;
+
+		Binding(Context context, int resolutionVersion, BeanDefinition definition, T singleton) {
+			this.context = context;
+			this.resolutionVersion = resolutionVersion;
+			this.definition = definition;
+			this.singleton = singleton;
+		}
+
+		boolean isValid() {
+			return !context.isClosed() && context.getResolutionVersion() == resolutionVersion;
+		}
+	}
+}
@@ -0,0 +1,315 @@
+package io.spotnext.inject;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Lazy;
+import io.spotnext.support.util.ClassUtil;
+
+/**
+ * Everything needed to instantiate and inject objects of a class without reflective lookups: pre-resolved setters for all {@link Inject} fields and
+ * either the {@link Inject} constructor with its resolved parameters or a generated {@link Supplier} for the public no-arg constructor. Plans are computed
+ * once per class and cached in a {@link ClassValue}.
+ */
+final class InjectionPlan {
+	private static final ClassValue<InjectionPlan> PLANS = new ClassValue<>() {
+		@Override
+		protected InjectionPlan computeValue(Class<?> type) {
+			return new InjectionPlan(type);
+		}
+	};
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType SPREAD_CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+	private final Class<?> type;
+	private final InjectionPoint[] injectionPoints;
+	private final Supplier<Object> constructor;
+	private final MethodHandle injectConstructor;
+	private final Dependency[] constructorParameters;
+
+	private InjectionPlan(Class<?> type) {
+		this.type = type;
+
+		final var points = new ArrayList<InjectionPoint>();
+		for (final var field : ClassUtil.getFields(type, f -> f.getAnnotation(Inject.class) != null)) {
+			if (!Modifier.isStatic(field.getModifiers())) {
+				final var description = String.format("field '%s' of %s", field.getName(), field.getDeclaringClass().getName());
+				final var dependency = Dependency.of(field.getType(), field.getGenericType(), field.isAnnotationPresent(Lazy.class), description);
+
+				points.add(new InjectionPoint(field, createSetter(field), dependency));
+			}
+		}
+
+		this.injectionPoints = points.toArray(new InjectionPoint[points.size()]);
+
+		final var constructor = findInjectConstructor(type);
+
+		if (constructor != null) {
+			final var parameters = constructor.getParameters();
+			this.constructorParameters = new Dependency[parameters.length];
+
+			for (int i = 0; i < parameters.length; i++) {
+				final var description = String.format("parameter %s of the constructor of %s", i, type.getName());
+				constructorParameters[i] = Dependency.of(parameters[i].getType(), parameters[i].getParameterizedType(),
+						parameters[i].isAnnotationPresent(Lazy.class), description);
+			}
+
+			this.injectConstructor = createInjectConstructor(constructor);
+			this.constructor = null;
+		} else {
+			this.constructorParameters = new Dependency[0];
+			this.injectConstructor = null;
+			this.constructor = createConstructor(type);
+		}
+	}
+
+	static InjectionPlan of(Class<?> type) {
+		return PLANS.get(type);
+	}
+
+	/**
+	 * Resolves and injects all {@link Inject} fields of the given object.
+	 */
+	void inject(Context context, Object bean) {
+		for (final var point : injectionPoints) {
+			point.inject(context, bean);
+		}
+	}
+
+	/**
+	 * Resolves and injects a single field of the given object.
+	 */
+	void inject(Context context, Object bean, Class<?> declaringClass, String fieldName) {
+		for (final var point : injectionPoints) {
+			if (point.field.getDeclaringClass().equals(declaringClass) && point.field.getName().equals(fieldName)) {
+				point.inject(context, bean);
+				return;
+			}
+		}
+
+		throw new BeanException(String.format("No injectable field '%s' found in %s", fieldName, declaringClass.getName()));
+	}
+
+	/**
+	 * Returns the bean types of all {@link Inject} fields and constructor parameters that are resolved on injection. Dependencies injected as
+	 * {@link Provider} or {@link Lazy} are only resolved on their first use and are therefore excluded.
+	 */
+	List<Class<?>> getEagerDependencyTypes() {
+		final var types = new ArrayList<Class<?>>(injectionPoints.length + constructorParameters.length);
+
+		for (final var point : injectionPoints) {
+			if (point.dependency.kind == InjectionKind.BEAN) {
+				types.add(point.dependency.beanType);
+			}
+		}
+
+		for (final var parameter : constructorParameters) {
+			if (parameter.kind == InjectionKind.BEAN) {
+				types.add(parameter.beanType);
+			}
+		}
+
+		return types;
+	}
+
+	boolean hasConstructor() {
+		return constructor != null || injectConstructor != null;
+	}
+
+	/**
+	 * Creates a new instance using the {@link Inject} constructor, resolving its parameters from the given context, or the public no-arg constructor.
+	 */
+	Object newInstance(Context context) {
+		if (injectConstructor != null) {
+			final var arguments = new Object[constructorParameters.length];
+
+			for (int i = 0; i < arguments.length; i++) {
+				arguments[i] = constructorParameters[i].resolve(context);
+			}
+
+			try {
+				return injectConstructor.invokeExact(arguments);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new BeanException(String.format("Could not instantiate bean of type '%s'", type.getName()), e);
+			}
+		}
+
+		if (constructor == null) {
+			throw new BeanException(String.format("Bean type '%s' has no public no-arg constructor", type.getName()));
+		}
+
+		return constructor.get();
+	}
+
+	private static Constructor<?> findInjectConstructor(Class<?> type) {
+		Constructor<?> injectConstructor = null;
+
+		for (final var constructor : type.getDeclaredConstructors()) {
+			if (constructor.isAnnotationPresent(Inject.class)) {
+				if (injectConstructor != null) {
+					throw new BeanException(String.format("Only one constructor of %s may be annotated with @Inject", type.getName()));
+				}
+
+				injectConstructor = constructor;
+			}
+		}
+
+		return injectConstructor;
+	}
+
+	private static MethodHandle createInjectConstructor(Constructor<?> constructor) {
+		try {
+			final var lookup = MethodHandles.privateLookupIn(constructor.getDeclaringClass(), MethodHandles.lookup());
+
+			return lookup.unreflectConstructor(constructor)
+					.asSpreader(Object[].class, constructor.getParameterCount())
+					.asType(SPREAD_CONSTRUCTOR_TYPE);
+		} catch (IllegalAccessException | RuntimeException e) {
+			throw new BeanException(String.format("Constructor of %s is not injectable", constructor.getDeclaringClass().getName()), e);
+		}
+	}
+
+	private static MethodHandle createSetter(Field field) {
+		try {
+			field.setAccessible(true);
+			final var lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+
+			return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+		} catch (IllegalAccessException | RuntimeException e) {
+			throw new BeanException(String.format("Field '%s' of %s is not injectable", field.getName(), field.getDeclaringClass().getName()), e);
+		}
+	}
+
+	/**
+	 * Spins a {@link Supplier} calling the constructor directly, so that the JIT can inline it. If the {@link LambdaMetafactory} is not allowed to define
+	 * the lambda class (eg. because the bean lives in another module) the constructor's {@link MethodHandle} is used instead.
+	 */
+	private static Supplier<Object> createConstructor(Class<?> type) {
+		if (Modifier.isAbstract(type.getModifiers())) {
+			return null;
+		}
+
+		final MethodHandles.Lookup lookup;
+		final MethodHandle constructor;
+
+		try {
+			type.getConstructor();
+			lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+			constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			return null;
+		}
+
+		try {
+			final var site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+					MethodType.methodType(Object.class), constructor, MethodType.methodType(type));
+
+			return (Supplier<Object>) site.getTarget().invokeExact();
+		} catch (Throwable e) {
+			final var genericConstructor = constructor.asType(MethodType.methodType(Object.class));
+
+			return () -> {
+				try {
+					return genericConstructor.invokeExact();
+				} catch (RuntimeException | Error ex) {
+					throw ex;
+				} catch (Throwable ex) {
+					throw new BeanException(String.format("Could not instantiate bean of type '%s'", type.getName()), ex);
+				}
+			};
+		}
+	}
+
+	private enum InjectionKind {
+		BEAN, PROVIDER, LAZY
+	}
+
+	/**
+	 * A resolved dependency of a field or constructor parameter.
+	 */
+	private static final class Dependency {
+		private final InjectionKind kind;
+		private final Class<?> beanType;
+
+		private Dependency(InjectionKind kind, Class<?> beanType) {
+			this.kind = kind;
+			this.beanType = beanType;
+		}
+
+		static Dependency of(Class<?> type, Type genericType, boolean lazy, String description) {
+			if (type == Provider.class || type == Supplier.class) {
+				return new Dependency(InjectionKind.PROVIDER, getTypeArgument(genericType, description));
+			} else if (lazy) {
+				return new Dependency(InjectionKind.LAZY, type);
+			}
+
+			return new Dependency(InjectionKind.BEAN, type);
+		}
+
+		/**
+		 * Returns the type argument of {@link Provider} and {@link Supplier} dependencies.
+		 */
+		private static Class<?> getTypeArgument(Type genericType, String description) {
+			if (genericType instanceof ParameterizedType) {
+				final var typeArgument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+
+				if (typeArgument instanceof Class) {
+					return (Class<?>) typeArgument;
+				} else if (typeArgument instanceof ParameterizedType) {
+					return (Class<?>) ((ParameterizedType) typeArgument).getRawType();
+				}
+			}
+
+			throw new BeanException(String.format("The %s needs a concrete type argument", description));
+		}
+
+		Object resolve(Context context) {
+			switch (kind) {
+				case PROVIDER:
+					return context.getProvider(beanType);
+				case LAZY:
+					return context.getLazyBean(beanType);
+				default:
+					return context.getBean(beanType);
+			}
+		}
+	}
+
+	private static final class InjectionPoint {
+		private final Field field;
+		private final MethodHandle setter;
+		private final Dependency dependency;
+
+		InjectionPoint(Field field, MethodHandle setter, Dependency dependency) {
+			this.field = field;
+			this.setter = setter;
+			this.dependency = dependency;
+		}
+
+		void inject(Context context, Object bean) {
+			final var value = dependency.resolve(context);
+
+			try {
+				setter.invokeExact(bean, value);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new BeanException(String.format("Could not inject field '%s' of %s", field.getName(), field.getDeclaringClass().getName()), e);
+			}
+		}
+	}
+}
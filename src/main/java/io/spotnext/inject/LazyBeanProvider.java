@@ -0,0 +1,98 @@
+package io.spotnext.inject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Resolves a bean on the first call of {@link #get()}. The resolution plan is kept, singletons are cached. If {@code memoize} is set, the first
+ * instance is kept for prototypes as well, which is used for {@link io.spotnext.inject.annotations.Lazy} proxies. Thread scoped, request scoped and
+ * pooled beans are never kept, they are resolved through the context on every call, so they don't leak out of their scope.
+ */
+final class LazyBeanProvider<T> implements Provider<T>, InvocationHandler {
+	private final Context context;
+	private final Class<T> beanType;
+	private final boolean memoize;
+
+	private volatile BeanDefinition definition;
+	private volatile T instance;
+
+	LazyBeanProvider(Context context, Class<T> beanType, boolean memoize) {
+		this.context = context;
+		this.beanType = beanType;
+		this.memoize = memoize;
+	}
+
+	Context getContext() {
+		return context;
+	}
+
+	@Override
+	public T get() {
+		final var bean = instance;
+
+		if (bean != null) {
+			return bean;
+		}
+
+		if (memoize && getDefinition().getScope() == BeanDefinition.Scope.PROTOTYPE) {
+			synchronized (this) {
+				if (instance == null) {
+					instance = create();
+				}
+
+				return instance;
+			}
+		}
+
+		return create();
+	}
+
+	private BeanDefinition getDefinition() {
+		var beanDefinition = definition;
+
+		if (beanDefinition == null) {
+			beanDefinition = context.getDefinition(beanType, null);
+			definition = beanDefinition;
+		}
+
+		return beanDefinition;
+	}
+
+	private T create() {
+		final var beanDefinition = getDefinition();
+		final T bean = (T) context.getBean(beanDefinition);
+
+		if (beanDefinition.isSingleton()) {
+			instance = bean;
+		}
+
+		return bean;
+	}
+
+	/**
+	 * Creates a proxy for the bean's interface, that resolves the bean on the first method call.
+	 */
+	T createProxy() {
+		if (!beanType.isInterface()) {
+			throw new BeanException(String.format("Lazy injection is only supported for interfaces, but %s is a class", beanType.getName()));
+		}
+
+		return (T) Proxy.newProxyInstance(beanType.getClassLoader(), new Class<?>[] { beanType }, this);
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(get(), args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Provider<" + beanType.getName() + ">";
+	}
+}
@@ -0,0 +1,120 @@
+package io.spotnext.inject;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import io.spotnext.inject.annotations.PostConstruct;
+import io.spotnext.inject.annotations.PreDestroy;
+
+/**
+ * The {@link PostConstruct} and {@link PreDestroy} methods of a class as method handles. They are looked up once per class and cached in a
+ * {@link ClassValue}, so creating and destroying beans doesn't involve any reflection.
+ */
+final class LifecycleCallbacks {
+	private static final ClassValue<LifecycleCallbacks> CALLBACKS = new ClassValue<>() {
+		@Override
+		protected LifecycleCallbacks computeValue(Class<?> type) {
+			return new LifecycleCallbacks(type);
+		}
+	};
+
+	private static final MethodType CALLBACK_TYPE = MethodType.methodType(void.class, Object.class);
+
+	private final Class<?> type;
+	private final MethodHandle[] postConstruct;
+	private final MethodHandle[] preDestroy;
+
+	private LifecycleCallbacks(Class<?> type) {
+		this.type = type;
+
+		final var postConstruct = findCallbacks(type, PostConstruct.class);
+		final var preDestroy = findCallbacks(type, PreDestroy.class);
+
+		// superclasses are initialized first and destroyed last
+		Collections.reverse(postConstruct);
+
+		this.postConstruct = postConstruct.toArray(new MethodHandle[postConstruct.size()]);
+		this.preDestroy = preDestroy.toArray(new MethodHandle[preDestroy.size()]);
+	}
+
+	static LifecycleCallbacks of(Class<?> type) {
+		return CALLBACKS.get(type);
+	}
+
+	boolean hasPreDestroy() {
+		return preDestroy.length > 0;
+	}
+
+	/**
+	 * Calls the {@link PostConstruct} methods of the given bean.
+	 */
+	void postConstruct(Object bean) {
+		invoke(postConstruct, bean, "initialize");
+	}
+
+	/**
+	 * Calls the {@link PreDestroy} methods of the given bean.
+	 */
+	void preDestroy(Object bean) {
+		invoke(preDestroy, bean, "destroy");
+	}
+
+	private void invoke(MethodHandle[] callbacks, Object bean, String action) {
+		for (final var callback : callbacks) {
+			try {
+				callback.invokeExact(bean);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new BeanException(String.format("Could not %s bean of type '%s'", action, type.getName()), e);
+			}
+		}
+	}
+
+	/**
+	 * Collects the annotated methods of the class and its superclasses, starting with the class itself. Overridden methods are only called once.
+	 */
+	private static List<MethodHandle> findCallbacks(Class<?> type, Class<? extends Annotation> annotation) {
+		final var callbacks = new ArrayList<MethodHandle>();
+		final var overridden = new HashSet<String>();
+
+		for (var current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+			for (final var method : current.getDeclaredMethods()) {
+				if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() > 0) {
+					continue;
+				}
+
+				final var isPrivate = Modifier.isPrivate(method.getModifiers());
+
+				if (method.isAnnotationPresent(annotation) && (isPrivate || !overridden.contains(method.getName()))) {
+					callbacks.add(createCallback(method, annotation));
+				}
+
+				if (!isPrivate) {
+					overridden.add(method.getName());
+				}
+			}
+		}
+
+		return callbacks;
+	}
+
+	private static MethodHandle createCallback(Method method, Class<?> annotation) {
+		try {
+			final var lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+
+			return lookup.unreflect(method).asType(CALLBACK_TYPE);
+		} catch (IllegalAccessException | RuntimeException e) {
+			throw new BeanException(String.format("@%s method '%s' of %s is not accessible", annotation.getSimpleName(), method.getName(),
+					method.getDeclaringClass().getName()), e);
+		}
+	}
+}
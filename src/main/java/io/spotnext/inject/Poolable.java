@@ -0,0 +1,12 @@
+package io.spotnext.inject;
+
+/**
+ * Implemented by {@link io.spotnext.inject.annotations.Pooled} beans that hold state, which has to be cleared before the instance is reused.
+ */
+public interface Poolable {
+
+	/**
+	 * Called by {@link Context#release(Object)} before the instance is returned to the pool. If it throws an exception, the instance is discarded.
+	 */
+	void reset();
+}
@@ -0,0 +1,18 @@
+package io.spotnext.inject;
+
+import java.util.function.Supplier;
+
+/**
+ * Provides instances of a bean. Inject a {@code Provider<T>} (or a plain {@code Supplier<T>}) instead of {@code T} to defer the bean's resolution and
+ * creation until {@link #get()} is called for the first time. Singletons are resolved only once, for prototypes every call returns a new instance.
+ *
+ * @param <T> the bean type
+ */
+public interface Provider<T> extends Supplier<T> {
+
+	/**
+	 * Returns the bean, creating it if necessary.
+	 */
+	@Override
+	T get();
+}
@@ -0,0 +1,55 @@
+package io.spotnext.inject;
+
+/**
+ * An active request (or unit of work) scope, created by {@link Context#enterRequestScope()}. All {@link io.spotnext.inject.annotations.RequestScoped}
+ * beans requested on the entering thread are kept until the scope is closed. Scopes can be nested, closing a scope reactivates the enclosing one.
+ *
+ * <pre>
+ * try (var scope = context.enterRequestScope()) {
+ * 	// handle the request
+ * }
+ * </pre>
+ */
+public final class RequestScope implements AutoCloseable {
+	private final Context context;
+	private final RequestScope enclosing;
+	private final ScopeStorage storage;
+	private boolean closed = false;
+
+	RequestScope(Context context, RequestScope enclosing, ScopeStorage storage) {
+		this.context = context;
+		this.enclosing = enclosing;
+		this.storage = storage;
+	}
+
+	ScopeStorage getStorage() {
+		return storage;
+	}
+
+	RequestScope getEnclosing() {
+		return enclosing;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Discards all beans of this scope, calling their {@link io.spotnext.inject.annotations.PreDestroy} methods, and reactivates the enclosing scope.
+	 * Closing an already closed scope has no effect.
+	 * 
+	 * @throws IllegalStateException if called on another thread or before a nested scope has been closed
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+
+		context.exitRequestScope(this);
+		storage.forEach(context::destroy);
+		storage.clear();
+		closed = true;
+		context.releaseRequestStorage(storage);
+	}
+}
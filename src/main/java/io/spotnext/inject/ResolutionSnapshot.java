@@ -0,0 +1,216 @@
+package io.spotnext.inject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The persisted result of the bean resolution of a previous run: for each requested type the chosen implementation, its scope, priority and whether it
+ * has a generated {@link BeanFactory}. Loading it allows the {@link Context} to skip the {@link java.util.ServiceLoader} scans, sorting, scope checks and
+ * interface walks on startup.
+ * <p>
+ * The file is only valid for the classpath it has been created with. It therefore contains a fingerprint built from the classpath entries (with their
+ * size and modification time, for directories those of their services files), the contents of all bean indexes and the registered scope annotations.
+ * Snapshots with a different fingerprint or format version are ignored. The class files in directories are not checked, as walking them would cost
+ * more than the resolution the snapshot saves: all beans are listed in the bean index, which the annotation processor rewrites whenever a bean
+ * changes.
+ * <p>
+ * Only the resolution is persisted, the {@link InjectionPlan}s can't be, as they consist of method handles. Beans with a generated factory are
+ * created and injected without them anyway, the plans of all other beans are built when they are created for the first time.
+ */
+final class ResolutionSnapshot {
+	static final int VERSION = 2;
+
+	private static final String HEADER = "# inject resolution snapshot: requestedType|implementation|scope|priority|source|factory";
+	private static final String VERSION_PREFIX = "version=";
+	private static final String FINGERPRINT_PREFIX = "fingerprint=";
+	private static final String COLUMN_SEPARATOR = "|";
+	private static final String SERVICES_PATH = "META-INF/services";
+
+	private ResolutionSnapshot() {
+	}
+
+	/**
+	 * Writes the given entries atomically if the file system supports it, so concurrently starting processes never read a partially written file.
+	 */
+	static void write(Path file, String fingerprint, Collection<Entry> entries) throws IOException {
+		final var directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+
+		final var tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+		try {
+			try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				writer.write(HEADER);
+				writer.newLine();
+				writer.write(VERSION_PREFIX + VERSION);
+				writer.newLine();
+				writer.write(FINGERPRINT_PREFIX + fingerprint);
+				writer.newLine();
+
+				for (final var entry : entries) {
+					writer.write(entry.format());
+					writer.newLine();
+				}
+			}
+
+			try {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Reads the snapshot entries.
+	 *
+	 * @return the entries, or null if the snapshot has another version or fingerprint
+	 */
+	static List<Entry> read(Path file, String fingerprint) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			final var lines = reader.lines()
+					.filter(l -> !l.isBlank() && !l.startsWith("#"))
+					.collect(Collectors.toList());
+
+			if (lines.size() < 2 || !lines.get(0).equals(VERSION_PREFIX + VERSION) || !lines.get(1).equals(FINGERPRINT_PREFIX + fingerprint)) {
+				return null;
+			}
+
+			final var entries = new ArrayList<Entry>(lines.size() - 2);
+			for (final var line : lines.subList(2, lines.size())) {
+				entries.add(Entry.parse(line));
+			}
+
+			return entries;
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of everything the resolution depends on.
+	 */
+	static String fingerprint(ClassLoader classLoader, Collection<String> scopeAnnotations) {
+		try {
+			final var digest = MessageDigest.getInstance("SHA-256");
+
+			for (final var entry : getClasspath(classLoader)) {
+				final var file = new File(entry);
+
+				if (file.isDirectory()) {
+					// the modification time of a directory doesn't change if a file in a subdirectory is changed
+					final var services = file.toPath().resolve(SERVICES_PATH);
+					update(digest, entry, 0, 0);
+
+					if (Files.isDirectory(services)) {
+						try (var files = Files.list(services)) {
+							for (final var servicesFile : (Iterable<Path>) files.sorted()::iterator) {
+								update(digest, servicesFile.toString(), Files.size(servicesFile), Files.getLastModifiedTime(servicesFile).toMillis());
+							}
+						}
+					}
+				} else {
+					update(digest, entry, file.length(), file.lastModified());
+				}
+			}
+
+			final var indexes = classLoader.getResources(BeanIndex.INDEX_PATH);
+			while (indexes.hasMoreElements()) {
+				try (InputStream input = indexes.nextElement().openStream()) {
+					digest.update(input.readAllBytes());
+				}
+			}
+
+			scopeAnnotations.stream().sorted().forEach(a -> digest.update(a.getBytes(StandardCharsets.UTF_8)));
+
+			final var hex = new StringBuilder();
+			for (final var b : digest.digest()) {
+				hex.append(String.format("%02x", b));
+			}
+
+			return hex.toString();
+		} catch (NoSuchAlgorithmException | IOException | UncheckedIOException e) {
+			throw new BeanException("Could not compute the classpath fingerprint", e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String file, long size, long lastModified) {
+		digest.update(String.format("%s:%s:%s;", file, size, lastModified).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static List<String> getClasspath(ClassLoader classLoader) {
+		final var entries = new ArrayList<String>();
+
+		if (classLoader instanceof URLClassLoader) {
+			for (final var url : ((URLClassLoader) classLoader).getURLs()) {
+				try {
+					entries.add(Paths.get(url.toURI()).toString());
+				} catch (URISyntaxException | IllegalArgumentException e) {
+					entries.add(url.toString());
+				}
+			}
+		}
+
+		if (classLoader == ClassLoader.getSystemClassLoader() || entries.isEmpty()) {
+			entries.addAll(Arrays.asList(System.getProperty("java.class.path", "").split(File.pathSeparator)));
+		}
+
+		return entries;
+	}
+
+	/**
+	 * A single resolved type.
+	 */
+	static final class Entry {
+		final String requestedType;
+		final String implementation;
+		final BeanDefinition.Scope scope;
+		final short priority;
+		final BeanDefinition.Source source;
+		final boolean factory;
+
+		Entry(String requestedType, String implementation, BeanDefinition.Scope scope, short priority, BeanDefinition.Source source, boolean factory) {
+			this.requestedType = requestedType;
+			this.implementation = implementation;
+			this.scope = scope;
+			this.priority = priority;
+			this.source = source;
+			this.factory = factory;
+		}
+
+		String format() {
+			return String.join(COLUMN_SEPARATOR, requestedType, implementation, scope.name(), String.valueOf(priority), source.name(),
+					String.valueOf(factory));
+		}
+
+		static Entry parse(String line) {
+			final var columns = line.split("\\" + COLUMN_SEPARATOR, -1);
+
+			if (columns.length != 6) {
+				throw new BeanException(String.format("Invalid resolution snapshot entry: %s", line));
+			}
+
+			return new Entry(columns[0], columns[1], BeanDefinition.Scope.valueOf(columns[2]), Short.parseShort(columns[3]), BeanDefinition.Source.valueOf(columns[4]),
+					Boolean.parseBoolean(columns[5]));
+		}
+	}
+}
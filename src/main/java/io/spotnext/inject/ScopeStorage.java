@@ -0,0 +1,54 @@
+package io.spotnext.inject;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The instances of one thread or request scope, indexed by the {@link BeanDefinition#getScopedId() scoped id} of their bean definition. A storage is
+ * only accessed by the thread that owns the scope, so it doesn't need any synchronization.
+ */
+final class ScopeStorage {
+	private static final Object[] EMPTY = new Object[0];
+
+	private Object[] instances = EMPTY;
+
+	/**
+	 * Returns the instance with the given id, or null if it hasn't been created in this scope yet.
+	 */
+	Object get(int id) {
+		final var instances = this.instances;
+
+		return id < instances.length ? instances[id] : null;
+	}
+
+	/**
+	 * Stores the instance with the given id.
+	 * 
+	 * @param capacity the number of scoped ids known to the context, so the array only grows once as long as no new scoped beans are resolved
+	 */
+	void put(int id, Object bean, int capacity) {
+		if (id >= instances.length) {
+			instances = Arrays.copyOf(instances, Math.max(id + 1, capacity));
+		}
+
+		instances[id] = bean;
+	}
+
+	/**
+	 * Passes all instances of the scope to the given consumer.
+	 */
+	void forEach(Consumer<Object> action) {
+		for (final var bean : instances) {
+			if (bean != null) {
+				action.accept(bean);
+			}
+		}
+	}
+
+	/**
+	 * Discards all instances. The array is kept, so the storage can be reused without allocating.
+	 */
+	void clear() {
+		Arrays.fill(instances, null);
+	}
+}
@@ -0,0 +1,66 @@
+package io.spotnext.inject;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The result of {@link Context#close(Duration)}: how long each singleton with {@link io.spotnext.inject.annotations.PreDestroy} methods took to shut
+ * down, which of them failed and which didn't finish before the deadline.
+ */
+public final class ShutdownReport {
+	private final Map<Class<?>, Duration> destructionTimes;
+	private final Map<Class<?>, Throwable> failures;
+	private final Set<Class<?>> unfinished;
+	private final Duration duration;
+
+	ShutdownReport(Map<Class<?>, Duration> destructionTimes, Map<Class<?>, Throwable> failures, Set<Class<?>> unfinished, Duration duration) {
+		this.destructionTimes = Collections.unmodifiableMap(new LinkedHashMap<>(destructionTimes));
+		this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+		this.unfinished = Set.copyOf(unfinished);
+		this.duration = duration;
+	}
+
+	/**
+	 * The time the {@link io.spotnext.inject.annotations.PreDestroy} methods of each destroyed singleton took, including failed ones.
+	 */
+	public Map<Class<?>, Duration> getDestructionTimes() {
+		return destructionTimes;
+	}
+
+	/**
+	 * The singletons whose {@link io.spotnext.inject.annotations.PreDestroy} methods have thrown an exception.
+	 */
+	public Map<Class<?>, Throwable> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * The singletons that have not been destroyed before the deadline, either because they were still running or waiting for their dependents.
+	 */
+	public Set<Class<?>> getUnfinished() {
+		return unfinished;
+	}
+
+	/**
+	 * The total time the shutdown took.
+	 */
+	public Duration getDuration() {
+		return duration;
+	}
+
+	/**
+	 * True if all singletons have been destroyed before the deadline.
+	 */
+	public boolean isComplete() {
+		return unfinished.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s singletons destroyed in %s ms, %s failed, %s unfinished", destructionTimes.size(), duration.toMillis(), failures.size(),
+				unfinished.size());
+	}
+}
@@ -0,0 +1,20 @@
+package io.spotnext.inject.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a singleton with a slow initialization, eg. one that warms a cache or opens connections in its constructor. It is created on a separate
+ * (virtual) thread, see {@link io.spotnext.inject.Context#getBeanAsync(Class)}. Beans depending on it through an interface receive a proxy, so they are
+ * only blocked once they call one of its methods.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface AsyncInit {
+
+}
@@ -1,5 +1,6 @@
 package io.spotnext.inject.annotations;
 
+import static java.lang.annotation.ElementType.CONSTRUCTOR;
 import static java.lang.annotation.ElementType.FIELD;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
@@ -9,7 +10,7 @@ import java.lang.annotation.Target;
 
 @Documented
 @Retention(RUNTIME)
-@Target(FIELD)
+@Target({ FIELD, CONSTRUCTOR })
 public @interface Inject {
 	String value() default "";
 }
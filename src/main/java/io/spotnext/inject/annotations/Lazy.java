@@ -0,0 +1,20 @@
+package io.spotnext.inject.annotations;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link Inject} field or constructor parameter to be resolved on first use: instead of the bean a proxy is injected, which creates the bean when one of its methods is
+ * called for the first time. Only supported for interface types.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target({ FIELD, PARAMETER })
+public @interface Lazy {
+
+}
@@ -0,0 +1,29 @@
+package io.spotnext.inject.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * A prototype whose instances are reused: instances given back with {@link io.spotnext.inject.Context#release(Object)} are kept in a bounded pool
+ * and handed out again by the next lookups. Beans implementing {@link io.spotnext.inject.Poolable} are reset before they are returned to the pool.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface Pooled {
+
+	/**
+	 * The name of the bean, used by {@link io.spotnext.inject.Context#getBean(String, Class)}.
+	 * <p>Default is the simple class name.
+	 */
+	String value() default "";
+
+	/**
+	 * The maximum number of idle instances kept in the pool. Released instances exceeding it are discarded.
+	 */
+	int size() default 16;
+}
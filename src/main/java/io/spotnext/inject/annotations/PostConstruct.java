@@ -0,0 +1,19 @@
+package io.spotnext.inject.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a no-arg method that is called once the bean has been created and all its dependencies have been injected. Methods of superclasses
+ * are called first.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface PostConstruct {
+
+}
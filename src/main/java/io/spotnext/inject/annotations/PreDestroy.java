@@ -0,0 +1,20 @@
+package io.spotnext.inject.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a no-arg method that is called before the bean is discarded: when the {@link io.spotnext.inject.Context} is closed for singletons,
+ * when the scope ends for thread and request scoped beans and when the pool drops the instance for pooled beans. Prototypes are not tracked, so their
+ * methods are never called. Methods of subclasses are called first.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface PreDestroy {
+
+}
@@ -0,0 +1,24 @@
+package io.spotnext.inject.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * One instance of the bean per request scope, see {@link io.spotnext.inject.Context#enterRequestScope()}. Requesting the bean outside of a request
+ * scope fails.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface RequestScoped {
+
+	/**
+	 * The name of the bean, used by {@link io.spotnext.inject.Context#getBean(String, Class)}.
+	 * <p>Default is the simple class name.
+	 */
+	String value() default "";
+}
@@ -12,4 +12,9 @@ import java.lang.annotation.Target;
 @Target(TYPE)
 public @interface Service {
 
+	/**
+	 * The name of the bean, used by {@link io.spotnext.inject.Context#getBean(String, Class)}.
+	 * <p>Default is the simple class name.
+	 */
+	String value() default "";
 }
@@ -0,0 +1,24 @@
+package io.spotnext.inject.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * One instance of the bean per thread. Virtual threads are threads of their own, so each of them gets its own instance.
+ * {@link io.spotnext.inject.Context#clearThreadScope()} discards the instances of the current thread, eg. before a pooled thread is reused.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface ThreadScoped {
+
+	/**
+	 * The name of the bean, used by {@link io.spotnext.inject.Context#getBean(String, Class)}.
+	 * <p>Default is the simple class name.
+	 */
+	String value() default "";
+}
@@ -2,29 +2,84 @@ package io.spotnext.inject.instrumentation;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.instrument.IllegalClassFormatException;
 import java.security.ProtectionDomain;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
 import io.spotnext.inject.annotations.Bean;
 import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Lazy;
+import io.spotnext.inject.annotations.Pooled;
 import io.spotnext.inject.annotations.Processed;
 import io.spotnext.inject.annotations.Prototype;
+import io.spotnext.inject.annotations.RequestScoped;
 import io.spotnext.inject.annotations.Service;
 import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.annotations.ThreadScoped;
+import io.spotnext.inject.jfr.WeavingEvent;
 import io.spotnext.support.util.Loggable;
 import io.spotnext.support.weaving.AbstractBaseClassTransformer;
 import io.spotnext.support.weaving.IllegalClassTransformationException;
+import javassist.CannotCompileException;
 import javassist.CtClass;
 import javassist.CtField;
 import javassist.bytecode.annotation.Annotation;
 
 /**
- * Transforms custom {@link ItemType} annotations to JPA entity annotations.
+ * Weaves the dependency injection into bean classes, so their {@link Inject} fields are already set when the constructor runs. For every injected
+ * field a {@code private static final} {@link io.spotnext.inject.Provider} named {@code inject$<field>} is added, and the field is initialized from
+ * it: bean fields with the provided bean, {@link io.spotnext.inject.Provider} and {@link java.util.function.Supplier} fields with the provider itself.
+ * {@link Lazy} fields get a lazy proxy and collection fields all implementations of their element type. Woven classes are marked as
+ * {@link Processed}, so the {@link io.spotnext.inject.Context} doesn't inject them again.
  */
 public class InjectionTransformer extends AbstractBaseClassTransformer implements Loggable {
 
+	private static final List<String> PROVIDER_TYPES = Arrays.asList("java.util.function.Supplier", "io.spotnext.inject.Provider");
+
+	/**
+	 * The prefix of the static {@link io.spotnext.inject.Provider} fields added for every injected field.
+	 */
+	private static final String HANDLE_PREFIX = "inject$";
+
+	private final WeavingFilter filter = WeavingFilter.fromSystemProperties();
+	private final WeavingCache cache = WeavingCache.fromSystemProperties();
+
+	/**
+	 * Rejects classes that are definitely no beans before they are parsed by Javassist and returns the woven class from the {@link WeavingCache} if
+	 * possible.
+	 */
+	@Override
+	public byte[] transform(final ClassLoader loader, final String className, final Class<?> classBeingRedefined,
+			final ProtectionDomain protectionDomain, final byte[] classfileBuffer) throws IllegalClassFormatException {
+
+		if (!filter.isCandidate(className, classfileBuffer)) {
+			return null;
+		}
+
+		if (cache == null) {
+			return super.transform(loader, className, classBeingRedefined, protectionDomain, classfileBuffer);
+		}
+
+		final var key = cache.getKey(classfileBuffer);
+		final var cached = cache.get(key);
+
+		if (cached != null) {
+			if (log().isDebugEnabled()) {
+				log().debug("Using cached weaving result for: " + className);
+			}
+
+			return cached.length > 0 ? cached : null;
+		}
+
+		final var transformed = super.transform(loader, className, classBeingRedefined, protectionDomain, classfileBuffer);
+		cache.put(key, transformed);
+
+		return transformed;
+	}
+
 	@Override
 	protected Optional<CtClass> transform(final ClassLoader loader, final CtClass clazz,
 			final Class<?> classBeingRedefined, final ProtectionDomain protectionDomain)
@@ -34,6 +89,9 @@ public class InjectionTransformer extends AbstractBaseClassTransformer implement
 			log().debug("Processing: " + clazz.getName());
 		}
 
+		final var event = new WeavingEvent();
+		event.begin();
+
 		try {
 			if (isBean(clazz) && !isAlreadProcessed(clazz)) {
 				if (log().isDebugEnabled()) {
@@ -52,9 +110,24 @@ public class InjectionTransformer extends AbstractBaseClassTransformer implement
 				for (final CtField field : getDeclaredFields(clazz)) {
 					final Optional<Annotation> injectAnnotation = getAnnotation(field, Inject.class);
 					if (injectAnnotation.isPresent()) {
+						event.injectedFields++;
+
 						final var fieldType = field.getType();
 						final var fieldTypeName = fieldType.getName();
 
+						if (PROVIDER_TYPES.contains(fieldTypeName)) {
+							final var handle = addBeanHandle(clazz, field, getTypeArgument(field));
+
+							clazz.removeField(field);
+							clazz.addField(field, CtField.Initializer.byExpr(handle));
+							continue;
+						} else if (getAnnotation(field, Lazy.class).isPresent()) {
+							clazz.removeField(field);
+							clazz.addField(field, CtField.Initializer
+									.byExpr(String.format("(%s) io.spotnext.inject.Context.instance().getLazyBean(%s.class)", fieldTypeName, fieldTypeName)));
+							continue;
+						}
+
 						final var allInterfaces = new HashSet<CtClass>();
 
 						for (var superType : getAllSuperclasses(fieldType)) {
@@ -75,20 +148,17 @@ public class InjectionTransformer extends AbstractBaseClassTransformer implement
 
 						clazz.removeField(field);
 						if (collectionFieldType != null) {
-							final var genericSignature = field.getGenericSignature();
-							final var genericType = genericSignature.substring(genericSignature.indexOf("<") + 2, genericSignature.length() - 3).replace("/",
-									".");
-							final var typeString = collectionFieldType.getName().endsWith("Set")
-									? "Set"
-									: "List";
+							final var genericType = getTypeArgument(field);
+							final var beans = String.format("io.spotnext.inject.Context.instance().getBeans(%s.class)", genericType);
 
-							clazz.addField(field, CtField.Initializer
-									.byExpr(String.format(
-											"io.spotnext.inject.Context.instance().getBeans(%s.class).stream().collect(java.util.stream.Collectors.to%s())",
-											genericType, typeString)));
+							// the ordered list is cached by the context and can be used as it is, sets keep its order
+							clazz.addField(field, CtField.Initializer.byExpr(collectionFieldType.getName().endsWith("Set")
+									? String.format("new java.util.LinkedHashSet(%s)", beans)
+									: beans));
 						} else {
-							clazz.addField(field, CtField.Initializer
-									.byExpr(String.format("(%s) io.spotnext.inject.Context.instance().getBean(%s.class)", fieldTypeName, fieldTypeName)));
+							final var handle = addBeanHandle(clazz, field, fieldTypeName);
+
+							clazz.addField(field, CtField.Initializer.byExpr(String.format("(%s) %s.get()", fieldTypeName, handle)));
 						}
 					}
 				}
@@ -97,6 +167,9 @@ public class InjectionTransformer extends AbstractBaseClassTransformer implement
 				// this is useful so that the class is not woven again during runtime in case the class has been woven during compile-time
 				addAnnotations(clazz, Arrays.asList(createAnnotation(clazz, Processed.class)));
 
+				event.woven = true;
+				commitWeaving(event, clazz);
+
 				return Optional.of(clazz);
 			} else {
 				if (log().isDebugEnabled()) {
@@ -111,9 +184,18 @@ public class InjectionTransformer extends AbstractBaseClassTransformer implement
 			throw new IllegalClassTransformationException(message, e);
 		}
 
+		commitWeaving(event, clazz);
+
 		return Optional.empty();
 	}
 
+	private void commitWeaving(WeavingEvent event, CtClass clazz) {
+		if (event.shouldCommit()) {
+			event.className = clazz.getName();
+			event.commit();
+		}
+	}
+
 	@Override
 	protected void writeByteCodeToFile(CtClass transformedClass) {
 		try {
@@ -123,12 +205,40 @@ public class InjectionTransformer extends AbstractBaseClassTransformer implement
 		}
 	}
 
+	/**
+	 * Adds a static {@link io.spotnext.inject.Provider} for the given field. The provider is created once when the class is initialized and keeps the
+	 * id of the bean in the current context. Creating further instances of the class therefore only involves a lookup of the current context and the
+	 * bean by its id, see {@link io.spotnext.inject.Context#getCurrentProvider(Class)}.
+	 * 
+	 * @return the name of the added field
+	 */
+	private String addBeanHandle(CtClass clazz, CtField field, String beanType) throws CannotCompileException {
+		final var handleName = HANDLE_PREFIX + field.getName();
+		final var handle = CtField.make(String.format("private static final io.spotnext.inject.Provider %s;", handleName), clazz);
+
+		clazz.addField(handle, CtField.Initializer.byExpr(String.format("io.spotnext.inject.Context.getCurrentProvider(%s.class)", beanType)));
+
+		return handleName;
+	}
+
+	/**
+	 * Returns the name of the type argument of a field with a single generic type, eg. {@code java.util.List<com.example.Service>}.
+	 */
+	private String getTypeArgument(CtField field) {
+		final var genericSignature = field.getGenericSignature();
+		return genericSignature.substring(genericSignature.indexOf("<") + 2, genericSignature.length() - 3).replace("/", ".");
+	}
+
 	private boolean isBean(CtClass clazz) throws IllegalClassTransformationException {
 		final Optional<Annotation> singletonAnnotation = getAnnotation(clazz, Singleton.class);
 		final Optional<Annotation> serviceAnnotation = getAnnotation(clazz, Service.class);
 		final Optional<Annotation> prototypeAnnotation = getAnnotation(clazz, Prototype.class);
 		final Optional<Annotation> beanAnnotation = getAnnotation(clazz, Bean.class);
-		return singletonAnnotation.isPresent() || serviceAnnotation.isPresent() || prototypeAnnotation.isPresent() || beanAnnotation.isPresent();
+		final Optional<Annotation> threadScopedAnnotation = getAnnotation(clazz, ThreadScoped.class);
+		final Optional<Annotation> requestScopedAnnotation = getAnnotation(clazz, RequestScoped.class);
+		final Optional<Annotation> pooledAnnotation = getAnnotation(clazz, Pooled.class);
+		return singletonAnnotation.isPresent() || serviceAnnotation.isPresent() || prototypeAnnotation.isPresent() || beanAnnotation.isPresent()
+				|| threadScopedAnnotation.isPresent() || requestScopedAnnotation.isPresent() || pooledAnnotation.isPresent();
 	}
 
 	protected boolean isAlreadProcessed(final CtClass clazz) throws IllegalClassTransformationException {
@@ -0,0 +1,142 @@
+package io.spotnext.inject.instrumentation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import io.spotnext.support.util.Loggable;
+
+/**
+ * Stores the result of the {@link InjectionTransformer} on disk, so classes don't have to be parsed and rewritten by Javassist again on the next start.
+ * Entries are keyed by the SHA-256 hash of the original class file and the {@link #TRANSFORMER_VERSION}. Classes that have been left unchanged are
+ * stored as empty files.
+ * <p>
+ * The cache directory can be shared by multiple JVMs: entries are written to a temporary file first and then atomically moved into place, so readers
+ * never see partially written entries. Any I/O error is logged and treated as a cache miss.
+ * <p>
+ * Note that the woven bytecode only depends on the class itself and the injected field types. If the latter change incompatibly, clear the cache.
+ */
+public final class WeavingCache implements Loggable {
+
+	/**
+	 * The system property with the path of the cache directory. The cache is disabled if it is not set.
+	 */
+	public static final String DIRECTORY_PROPERTY = "io.spotnext.inject.weaving.cache";
+
+	/**
+	 * Has to be increased whenever the woven code changes, so stale cache entries are ignored.
+	 */
+	public static final int TRANSFORMER_VERSION = 3;
+
+	private static final String ENTRY_SUFFIX = ".class";
+	private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+
+	private final Path directory;
+
+	public WeavingCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Creates the cache configured by the system property {@value #DIRECTORY_PROPERTY}.
+	 *
+	 * @return the cache or null if it is not configured
+	 */
+	public static WeavingCache fromSystemProperties() {
+		final var directory = System.getProperty(DIRECTORY_PROPERTY);
+
+		return directory != null && !directory.isBlank() ? new WeavingCache(Path.of(directory)) : null;
+	}
+
+	/**
+	 * Computes the cache key of the given original class file.
+	 */
+	public String getKey(byte[] classfile) {
+		try {
+			final var digest = MessageDigest.getInstance("SHA-256");
+			digest.update(String.valueOf(TRANSFORMER_VERSION).getBytes(StandardCharsets.UTF_8));
+			digest.update(classfile);
+
+			final var hex = new StringBuilder();
+			for (final var b : digest.digest()) {
+				hex.append(String.format("%02x", b));
+			}
+
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported", e);
+		}
+	}
+
+	/**
+	 * Returns the cached transformation result.
+	 *
+	 * @return the woven class file, an empty array if the class is not changed by the transformer or null if it is not cached
+	 */
+	public byte[] get(String key) {
+		try {
+			final var content = Files.readAllBytes(directory.resolve(key + ENTRY_SUFFIX));
+
+			if (content.length > 0 && !isClassFile(content)) {
+				log().warn("Ignoring invalid weaving cache entry {}", key);
+				return null;
+			}
+
+			return content;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			log().warn(String.format("Could not read weaving cache entry %s", key), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a transformation result.
+	 *
+	 * @param key         the key of the original class file
+	 * @param transformed the woven class file or null if the class is not changed by the transformer
+	 */
+	public void put(String key, byte[] transformed) {
+		final var entry = directory.resolve(key + ENTRY_SUFFIX);
+		Path tempFile = null;
+
+		try {
+			Files.createDirectories(directory);
+
+			tempFile = Files.createTempFile(directory, key, ".tmp");
+			Files.write(tempFile, transformed != null ? transformed : new byte[0]);
+
+			try {
+				Files.move(tempFile, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, entry, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			log().warn(String.format("Could not write weaving cache entry %s", key), e);
+		} finally {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e) {
+					// ignore, the temporary file might be cleaned up later
+				}
+			}
+		}
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	private static boolean isClassFile(byte[] content) {
+		return content.length >= 4
+				&& ((content[0] & 0xFF) << 24 | (content[1] & 0xFF) << 16 | (content[2] & 0xFF) << 8 | (content[3] & 0xFF)) == CLASS_FILE_MAGIC;
+	}
+}
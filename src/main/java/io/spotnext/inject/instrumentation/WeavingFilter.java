@@ -0,0 +1,194 @@
+package io.spotnext.inject.instrumentation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.spotnext.inject.annotations.Bean;
+import io.spotnext.inject.annotations.Pooled;
+import io.spotnext.inject.annotations.Prototype;
+import io.spotnext.inject.annotations.RequestScoped;
+import io.spotnext.inject.annotations.Service;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.annotations.ThreadScoped;
+
+/**
+ * Decides on the raw class file whether a class might be a bean and therefore needs to be parsed by the {@link InjectionTransformer}. This avoids
+ * materializing a Javassist class for every class the JVM loads.
+ * <p>
+ * A class is a candidate if its package is included, not excluded and its constant pool references one of the bean annotations. The packages can be
+ * configured with the system properties {@value #INCLUDE_PROPERTY} and {@value #EXCLUDE_PROPERTY} as comma-separated package prefixes, eg.
+ * {@code com.example,org.acme.plugins}. The JDK and the libraries used by the weaver are always excluded.
+ */
+public final class WeavingFilter {
+	public static final String INCLUDE_PROPERTY = "io.spotnext.inject.weaving.include";
+	public static final String EXCLUDE_PROPERTY = "io.spotnext.inject.weaving.exclude";
+
+	private static final List<String> DEFAULT_EXCLUDES = Arrays.asList("java/", "javax/", "jdk/", "sun/", "com/sun/", "javassist/", "org/slf4j/");
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+
+	/**
+	 * The descriptors of the bean annotations as they appear in the constant pool.
+	 */
+	private static final byte[][] ANNOTATION_DESCRIPTORS = Arrays.asList(Singleton.class, Service.class, Prototype.class, Bean.class, ThreadScoped.class,
+			RequestScoped.class, Pooled.class).stream()
+			.map(a -> ("L" + a.getName().replace('.', '/') + ";").getBytes(StandardCharsets.UTF_8))
+			.toArray(byte[][]::new);
+
+	private final List<String> includes;
+	private final List<String> excludes;
+
+	/**
+	 * @param includes the package prefixes to weave, empty to include all packages
+	 * @param excludes the package prefixes to skip in addition to the default ones
+	 */
+	public WeavingFilter(List<String> includes, List<String> excludes) {
+		this.includes = toInternalNames(includes);
+		this.excludes = new ArrayList<>(DEFAULT_EXCLUDES);
+		this.excludes.addAll(toInternalNames(excludes));
+	}
+
+	/**
+	 * Creates a filter configured by the system properties {@value #INCLUDE_PROPERTY} and {@value #EXCLUDE_PROPERTY}.
+	 */
+	public static WeavingFilter fromSystemProperties() {
+		return new WeavingFilter(split(System.getProperty(INCLUDE_PROPERTY)), split(System.getProperty(EXCLUDE_PROPERTY)));
+	}
+
+	/**
+	 * Checks if the given class might be a bean.
+	 *
+	 * @param className the internal name of the class, eg. {@code com/example/Service}. Null for hidden classes.
+	 * @param classfile the class file
+	 * @return false if the class is definitely no bean that can be woven
+	 */
+	public boolean isCandidate(String className, byte[] classfile) {
+		if (className == null || classfile == null) {
+			return false;
+		}
+
+		for (final var exclude : excludes) {
+			if (className.startsWith(exclude)) {
+				return false;
+			}
+		}
+
+		if (!includes.isEmpty() && includes.stream().noneMatch(className::startsWith)) {
+			return false;
+		}
+
+		return referencesBeanAnnotation(classfile);
+	}
+
+	/**
+	 * Walks the constant pool and checks if one of the UTF8 entries is the descriptor of a bean annotation. Unknown class file content is treated as a
+	 * match, so the decision is left to the transformer.
+	 */
+	static boolean referencesBeanAnnotation(byte[] classfile) {
+		try {
+			final var constantPoolCount = readUnsignedShort(classfile, 8);
+			var pos = 10;
+
+			for (int i = 1; i < constantPoolCount; i++) {
+				final var tag = classfile[pos++];
+
+				switch (tag) {
+					case CONSTANT_UTF8:
+						final var length = readUnsignedShort(classfile, pos);
+						pos += 2;
+
+						if (isBeanAnnotationDescriptor(classfile, pos, length)) {
+							return true;
+						}
+
+						pos += length;
+						break;
+					case CONSTANT_CLASS:
+					case CONSTANT_STRING:
+					case CONSTANT_METHOD_TYPE:
+					case CONSTANT_MODULE:
+					case CONSTANT_PACKAGE:
+						pos += 2;
+						break;
+					case CONSTANT_METHOD_HANDLE:
+						pos += 3;
+						break;
+					case CONSTANT_INTEGER:
+					case CONSTANT_FLOAT:
+					case CONSTANT_FIELDREF:
+					case CONSTANT_METHODREF:
+					case CONSTANT_INTERFACE_METHODREF:
+					case CONSTANT_NAME_AND_TYPE:
+					case CONSTANT_DYNAMIC:
+					case CONSTANT_INVOKE_DYNAMIC:
+						pos += 4;
+						break;
+					case CONSTANT_LONG:
+					case CONSTANT_DOUBLE:
+						// these take up two entries
+						pos += 8;
+						i++;
+						break;
+					default:
+						return true;
+				}
+			}
+
+			return false;
+		} catch (ArrayIndexOutOfBoundsException e) {
+			return true;
+		}
+	}
+
+	private static boolean isBeanAnnotationDescriptor(byte[] classfile, int offset, int length) {
+		for (final var descriptor : ANNOTATION_DESCRIPTORS) {
+			if (descriptor.length == length && Arrays.equals(classfile, offset, offset + length, descriptor, 0, length)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static int readUnsignedShort(byte[] data, int offset) {
+		return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+	}
+
+	private static List<String> split(String value) {
+		if (value == null || value.isBlank()) {
+			return Collections.emptyList();
+		}
+
+		return Arrays.stream(value.split(","))
+				.map(String::trim)
+				.filter(v -> !v.isEmpty())
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> toInternalNames(List<String> packages) {
+		return packages.stream()
+				.map(p -> p.replace('.', '/'))
+				.map(p -> p.endsWith("/") ? p : p + "/")
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,27 @@
+package io.spotnext.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when the dependencies of an object are injected, either as part of the bean creation or by calling
+ * {@link io.spotnext.inject.Context#injectBeans(Object)}.
+ */
+@Name("io.spotnext.inject.BeanInjection")
+@Label("Bean Injection")
+@Category({ "Inject" })
+@Description("Injection of the dependencies of an object")
+@StackTrace(false)
+public class BeanInjectionEvent extends Event {
+
+	@Label("Bean Type")
+	public Class<?> beanType;
+
+	@Label("Injection Mode")
+	@Description("FACTORY, WOVEN or REFLECTIVE, see ContextListener.InjectionMode")
+	public String injectionMode;
+}
@@ -0,0 +1,26 @@
+package io.spotnext.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted whenever a new bean instance is created. The duration covers the constructor call and the injection, including the creation of
+ * dependencies that didn't exist yet.
+ */
+@Name("io.spotnext.inject.BeanInstantiation")
+@Label("Bean Instantiation")
+@Category({ "Inject" })
+@Description("Creation and injection of a new bean instance")
+@StackTrace(false)
+public class BeanInstantiationEvent extends Event {
+
+	@Label("Bean Type")
+	public Class<?> beanType;
+
+	@Label("Scope")
+	public String scope;
+}
@@ -0,0 +1,31 @@
+package io.spotnext.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted for every bean lookup by type. The duration covers the whole lookup, including the creation of the bean if necessary.
+ */
+@Name("io.spotnext.inject.BeanResolution")
+@Label("Bean Resolution")
+@Category({ "Inject" })
+@Description("Lookup of a bean by type")
+public class BeanResolutionEvent extends Event {
+	public static final String SINGLETON_CACHE = "SINGLETON_CACHE";
+
+	@Label("Requested Type")
+	public Class<?> beanType;
+
+	@Label("Implementation Type")
+	public Class<?> implementationType;
+
+	@Label("Scope")
+	public String scope;
+
+	@Label("Resolution Path")
+	@Description("How the implementation has been found: SINGLETON_CACHE, BEAN_INDEX, SERVICE_LOADER or INTERFACE_FALLBACK")
+	public String resolutionPath;
+}
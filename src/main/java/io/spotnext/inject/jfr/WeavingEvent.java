@@ -0,0 +1,29 @@
+package io.spotnext.inject.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted by the {@link io.spotnext.inject.instrumentation.InjectionTransformer} for every class it is asked to transform.
+ */
+@Name("io.spotnext.inject.Weaving")
+@Label("Injection Weaving")
+@Category({ "Inject" })
+@Description("Load-time weaving of the injection code into a bean class")
+@StackTrace(false)
+public class WeavingEvent extends Event {
+
+	@Label("Class Name")
+	public String className;
+
+	@Label("Woven")
+	@Description("False if the class is not a bean or has already been woven")
+	public boolean woven;
+
+	@Label("Injected Fields")
+	public int injectedFields;
+}
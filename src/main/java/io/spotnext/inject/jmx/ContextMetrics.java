@@ -0,0 +1,279 @@
+package io.spotnext.inject.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import io.spotnext.inject.BeanException;
+import io.spotnext.inject.BeanPool;
+import io.spotnext.inject.Context;
+import io.spotnext.inject.ContextListener;
+
+/**
+ * Collects the usage statistics of a {@link Context} and exposes them as MXBean. All counters are {@link LongAdder}s, so the overhead under contention
+ * stays low. Use {@link #register(Context)} to attach the metrics to a context, or set the system property {@value #ENABLED_PROPERTY} to {@code true} to
+ * register them for every context on creation.
+ */
+public class ContextMetrics implements ContextListener, ContextMetricsMXBean {
+	public static final String ENABLED_PROPERTY = "io.spotnext.inject.metrics";
+	public static final String OBJECT_NAME_DOMAIN = "io.spotnext.inject";
+
+	private static final int MOST_REQUESTED_BEANS_LIMIT = 20;
+
+	private final Context context;
+	private final ObjectName objectName;
+
+	private final Map<Class<?>, LongAdder> beanRequests = new ConcurrentHashMap<>();
+	private final Map<Class<?>, LongAdder> prototypesCreated = new ConcurrentHashMap<>();
+	private final LongAdder singletonCacheHits = new LongAdder();
+	private final LongAdder singletonCacheMisses = new LongAdder();
+	private final LongAdder singletonsCreated = new LongAdder();
+	private final LatencyHistogram prototypeCreation = new LatencyHistogram();
+	private final LongAdder serviceLoaderScans = new LongAdder();
+	private final LongAdder serviceLoaderScanNanos = new LongAdder();
+	private final LongAdder factoryInjections = new LongAdder();
+	private final LongAdder wovenInjections = new LongAdder();
+	private final LongAdder reflectiveInjections = new LongAdder();
+
+	private ContextMetrics(Context context, ObjectName objectName) {
+		this.context = context;
+		this.objectName = objectName;
+	}
+
+	/**
+	 * Creates the metrics for the given context, registers them as listener and in the platform MBean server.
+	 */
+	public static ContextMetrics register(Context context) {
+		try {
+			final var objectName = new ObjectName(OBJECT_NAME_DOMAIN, "type", "Context@" + Integer.toHexString(System.identityHashCode(context)));
+			final var metrics = new ContextMetrics(context, objectName);
+
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+			context.addListener(metrics);
+
+			return metrics;
+		} catch (JMException e) {
+			throw new BeanException("Could not register context metrics", e);
+		}
+	}
+
+	/**
+	 * Removes the metrics from the context and the platform MBean server.
+	 */
+	public void unregister() {
+		context.removeListener(this);
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			throw new BeanException("Could not unregister context metrics", e);
+		}
+	}
+
+	@Override
+	public void contextClosed(Context context) {
+		unregister();
+	}
+
+	public ObjectName getObjectName() {
+		return objectName;
+	}
+
+	@Override
+	public void beanRequested(Class<?> beanType) {
+		increment(beanRequests, beanType);
+	}
+
+	@Override
+	public void singletonCacheHit(Class<?> beanType) {
+		singletonCacheHits.increment();
+	}
+
+	@Override
+	public void singletonCacheMiss(Class<?> beanType) {
+		singletonCacheMisses.increment();
+	}
+
+	@Override
+	public void beanCreated(Class<?> beanType, boolean singleton, long durationNanos) {
+		if (singleton) {
+			singletonsCreated.increment();
+		} else {
+			increment(prototypesCreated, beanType);
+			prototypeCreation.record(durationNanos);
+		}
+	}
+
+	@Override
+	public void serviceLoaderScanned(Class<?> serviceType, long durationNanos) {
+		serviceLoaderScans.increment();
+		serviceLoaderScanNanos.add(durationNanos);
+	}
+
+	@Override
+	public void beanInjected(Class<?> beanType, InjectionMode mode) {
+		switch (mode) {
+			case FACTORY:
+				factoryInjections.increment();
+				break;
+			case WOVEN:
+				wovenInjections.increment();
+				break;
+			default:
+				reflectiveInjections.increment();
+		}
+	}
+
+	private static void increment(Map<Class<?>, LongAdder> counters, Class<?> type) {
+		var counter = counters.get(type);
+
+		if (counter == null) {
+			counter = counters.computeIfAbsent(type, t -> new LongAdder());
+		}
+
+		counter.increment();
+	}
+
+	private static Map<String, Long> sum(Map<Class<?>, LongAdder> counters) {
+		return counters.entrySet().stream()
+				.collect(Collectors.toMap(e -> e.getKey().getName(), e -> e.getValue().sum()));
+	}
+
+	@Override
+	public long getBeanRequests() {
+		return beanRequests.values().stream().mapToLong(LongAdder::sum).sum();
+	}
+
+	@Override
+	public Map<String, Long> getBeanRequestsByType() {
+		return sum(beanRequests);
+	}
+
+	@Override
+	public String[] getMostRequestedBeans() {
+		return getBeanRequestsByType().entrySet().stream()
+				.sorted(Map.Entry.<String, Long> comparingByValue(Comparator.reverseOrder()))
+				.limit(MOST_REQUESTED_BEANS_LIMIT)
+				.map(e -> e.getKey() + ": " + e.getValue())
+				.toArray(String[]::new);
+	}
+
+	@Override
+	public long getSingletonCacheHits() {
+		return singletonCacheHits.sum();
+	}
+
+	@Override
+	public long getSingletonCacheMisses() {
+		return singletonCacheMisses.sum();
+	}
+
+	@Override
+	public double getSingletonCacheHitRatio() {
+		final var hits = singletonCacheHits.sum();
+		final var total = hits + singletonCacheMisses.sum();
+
+		return total > 0 ? (double) hits / total : 0;
+	}
+
+	@Override
+	public long getSingletonsCreated() {
+		return singletonsCreated.sum();
+	}
+
+	@Override
+	public long getPrototypesCreated() {
+		return prototypeCreation.getCount();
+	}
+
+	@Override
+	public Map<String, Long> getPrototypesCreatedByType() {
+		return sum(prototypesCreated);
+	}
+
+	@Override
+	public double getPrototypeCreationMeanNanos() {
+		return prototypeCreation.getMean();
+	}
+
+	@Override
+	public long getPrototypeCreationMaxNanos() {
+		return prototypeCreation.getMax();
+	}
+
+	@Override
+	public Map<String, Long> getPrototypeCreationHistogram() {
+		return prototypeCreation.getBuckets();
+	}
+
+	@Override
+	public long getServiceLoaderScans() {
+		return serviceLoaderScans.sum();
+	}
+
+	@Override
+	public long getServiceLoaderScanNanos() {
+		return serviceLoaderScanNanos.sum();
+	}
+
+	@Override
+	public long getFactoryInjections() {
+		return factoryInjections.sum();
+	}
+
+	@Override
+	public long getWovenInjections() {
+		return wovenInjections.sum();
+	}
+
+	@Override
+	public long getReflectiveInjections() {
+		return reflectiveInjections.sum();
+	}
+
+	@Override
+	public long getPoolHits() {
+		return context.getPools().stream().mapToLong(BeanPool::getHits).sum();
+	}
+
+	@Override
+	public long getPoolMisses() {
+		return context.getPools().stream().mapToLong(BeanPool::getMisses).sum();
+	}
+
+	@Override
+	public double getPoolHitRatio() {
+		final var hits = getPoolHits();
+		final var total = hits + getPoolMisses();
+
+		return total > 0 ? (double) hits / total : 0;
+	}
+
+	@Override
+	public Map<String, Long> getPoolSizes() {
+		return context.getPools().stream()
+				.collect(Collectors.toMap(p -> p.getBeanType().getName(), p -> (long) p.getSize()));
+	}
+
+	@Override
+	public void reset() {
+		beanRequests.clear();
+		prototypesCreated.clear();
+		singletonCacheHits.reset();
+		singletonCacheMisses.reset();
+		singletonsCreated.reset();
+		prototypeCreation.reset();
+		serviceLoaderScans.reset();
+		serviceLoaderScanNanos.reset();
+		factoryInjections.reset();
+		wovenInjections.reset();
+		reflectiveInjections.reset();
+		context.getPools().forEach(BeanPool::resetStatistics);
+	}
+}
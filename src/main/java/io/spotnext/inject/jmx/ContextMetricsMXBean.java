@@ -0,0 +1,83 @@
+package io.spotnext.inject.jmx;
+
+import java.util.Map;
+
+/**
+ * The JMX view of the {@link ContextMetrics}. All durations are in nanoseconds.
+ */
+public interface ContextMetricsMXBean {
+
+	long getBeanRequests();
+
+	/**
+	 * The number of lookups, mapped by the requested type.
+	 */
+	Map<String, Long> getBeanRequestsByType();
+
+	/**
+	 * The most frequently requested types with their request count, in descending order.
+	 */
+	String[] getMostRequestedBeans();
+
+	long getSingletonCacheHits();
+
+	long getSingletonCacheMisses();
+
+	/**
+	 * The share of singleton lookups served from the singleton cache, between 0 and 1.
+	 */
+	double getSingletonCacheHitRatio();
+
+	long getSingletonsCreated();
+
+	long getPrototypesCreated();
+
+	/**
+	 * The number of created prototypes, mapped by the implementation type.
+	 */
+	Map<String, Long> getPrototypesCreatedByType();
+
+	double getPrototypeCreationMeanNanos();
+
+	long getPrototypeCreationMaxNanos();
+
+	/**
+	 * The prototype creation durations in power-of-two buckets, mapped from the upper bound of the bucket to the number of creations.
+	 */
+	Map<String, Long> getPrototypeCreationHistogram();
+
+	long getServiceLoaderScans();
+
+	long getServiceLoaderScanNanos();
+
+	long getFactoryInjections();
+
+	long getWovenInjections();
+
+	long getReflectiveInjections();
+
+	/**
+	 * The number of pooled bean lookups served by an idle instance, summed over all pools.
+	 */
+	long getPoolHits();
+
+	/**
+	 * The number of pooled bean lookups that had to create a new instance, summed over all pools.
+	 */
+	long getPoolMisses();
+
+	/**
+	 * The share of pooled bean lookups served by an idle instance, between 0 and 1.
+	 */
+	double getPoolHitRatio();
+
+	/**
+	 * The number of idle instances, mapped by the pooled bean type.
+	 */
+	Map<String, Long> getPoolSizes();
+
+	/**
+	 * Resets all counters to zero.
+	 */
+	void reset();
+}
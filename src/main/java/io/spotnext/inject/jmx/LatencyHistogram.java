@@ -0,0 +1,74 @@
+package io.spotnext.inject.jmx;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations with one bucket per power of two, so recording a value only costs a few additions.
+ */
+final class LatencyHistogram {
+	private static final int BUCKETS = Long.SIZE;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	void record(long nanos) {
+		final var value = Math.max(nanos, 0);
+
+		// bucket i contains all values below 2^i
+		buckets[Math.min(BUCKETS - Long.numberOfLeadingZeros(value), BUCKETS - 1)].increment();
+		count.increment();
+		total.add(value);
+		max.accumulate(value);
+	}
+
+	long getCount() {
+		return count.sum();
+	}
+
+	double getMean() {
+		final var c = count.sum();
+		return c > 0 ? (double) total.sum() / c : 0;
+	}
+
+	long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the non-empty buckets, mapped from their exclusive upper bound to their count.
+	 */
+	Map<String, Long> getBuckets() {
+		final var result = new LinkedHashMap<String, Long>();
+
+		for (int i = 0; i < BUCKETS; i++) {
+			final var bucketCount = buckets[i].sum();
+
+			if (bucketCount > 0) {
+				result.put(i < BUCKETS - 1 ? "< " + (1L << i) + " ns" : ">= " + (1L << (i - 1)) + " ns", bucketCount);
+			}
+		}
+
+		return result;
+	}
+
+	void reset() {
+		for (final var bucket : buckets) {
+			bucket.reset();
+		}
+
+		count.reset();
+		total.reset();
+		max.reset();
+	}
+}
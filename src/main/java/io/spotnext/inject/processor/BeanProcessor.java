@@ -16,19 +16,21 @@
 package io.spotnext.inject.processor;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.annotation.processing.AbstractProcessor;
@@ -38,39 +40,58 @@ import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ErrorType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
 import javax.lang.model.util.SimpleElementVisitor8;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.SimpleTypeVisitor8;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic.Kind;
-import javax.tools.FileObject;
 import javax.tools.StandardLocation;
 
+import io.spotnext.inject.BeanFactory;
+import io.spotnext.inject.BeanIndex;
+import io.spotnext.inject.Provider;
 import io.spotnext.inject.annotations.Bean;
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Lazy;
+import io.spotnext.inject.annotations.Ordered;
+import io.spotnext.inject.annotations.Pooled;
+import io.spotnext.inject.annotations.Processed;
 import io.spotnext.inject.annotations.Prototype;
+import io.spotnext.inject.annotations.RequestScoped;
 import io.spotnext.inject.annotations.Service;
 import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.annotations.ThreadScoped;
 
 /**
  * Processes {@link AutoService} annotations and generates the service provider configuration files described in {@link java.util.ServiceLoader}.
  * <p>
  * Processor Options:
  * <ul>
- * <li>debug - turns on debug statements</li>
+ * <li>debug - turns on debug statements and reports the time spent in the processor</li>
  * </ul>
+ * <p>
+ * The processor is registered as aggregating processor for Gradle's incremental compilation: all generated resources are created with the processed
+ * beans as originating elements.
  */
 @SupportedOptions({ "debug", "verify" })
 public class BeanProcessor extends AbstractProcessor {
 
 	public static final String MISSING_SERVICES_ERROR = "No service interfaces provided for element!";
 
-	public static final Set<Class<? extends Annotation>> SUPPORTED_ANNOTATIONS = Set.of(Service.class, Singleton.class, Bean.class, Prototype.class);
+	public static final Set<Class<? extends Annotation>> SUPPORTED_ANNOTATIONS = Set.of(Service.class, Singleton.class, Bean.class, Prototype.class,
+			ThreadScoped.class, RequestScoped.class, Pooled.class);
 
 	/**
 	 * Maps the class names of service provider interfaces to the class names of the concrete classes which implement them.
@@ -78,7 +99,41 @@ public class BeanProcessor extends AbstractProcessor {
 	 * For example, {@code "com.google.apphosting.LocalRpcService" ->
 	 *   "com.google.apphosting.datastore.LocalDatastoreService"}
 	 */
-	private Map<String, List<String>> providers = new HashMap<>();
+	private Map<String, SortedSet<String>> providers = new HashMap<>();
+
+	/**
+	 * All processed beans, which are the originating elements of the services files and the bean index.
+	 */
+	private List<TypeElement> originatingElements = new ArrayList<>();
+
+	/**
+	 * The bean index entries of all processed beans, sorted by the implementation class name.
+	 */
+	private Map<String, BeanIndex.Entry> indexEntries = new TreeMap<>();
+
+	/**
+	 * The bean classes for which a {@link BeanFactory} has already been generated.
+	 */
+	private Set<String> generatedFactories = new HashSet<>();
+
+	/**
+	 * Maps the binary names of types to the binary names of all their supertypes (except {@link Object}), including themselves. Only names are kept, so
+	 * the cache is valid across rounds.
+	 */
+	private Map<String, Set<String>> typeHierarchies = new HashMap<>();
+
+	/**
+	 * The interfaces implemented by the given class and its superclasses. Cleared on every round, as the elements might be recreated.
+	 */
+	private Map<TypeElement, List<TypeMirror>> providerInterfaces = new HashMap<>();
+
+	/**
+	 * The inject fields declared by the given class. Cleared on every round, as the elements might be recreated.
+	 */
+	private Map<TypeElement, List<VariableElement>> injectFields = new HashMap<>();
+
+	private long processingNanos = 0;
+	private int rounds = 0;
 
 	@Override
 	public Set<String> getSupportedAnnotationTypes() {
@@ -121,12 +176,25 @@ public class BeanProcessor extends AbstractProcessor {
 	}
 
 	private boolean processImpl(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		final var start = System.nanoTime();
+
 		if (roundEnv.processingOver()) {
-			generateConfigFiles();
+			generateResources();
 		} else {
+			providerInterfaces.clear();
+			injectFields.clear();
+
 			processAnnotations(annotations, roundEnv);
 		}
 
+		processingNanos += System.nanoTime() - start;
+		rounds++;
+
+		if (roundEnv.processingOver()) {
+			log(String.format("%s processed %s beans and generated %s factories in %s rounds, took %.3f ms", BeanProcessor.class.getSimpleName(),
+					indexEntries.size(), generatedFactories.size(), rounds, processingNanos / 1_000_000d));
+		}
+
 		return true;
 	}
 
@@ -141,26 +209,22 @@ public class BeanProcessor extends AbstractProcessor {
 				// TODO(gak): check for error trees?
 				TypeElement providerImplementer = (TypeElement) e;
 
-				final var providerInterfaces = new ArrayList<TypeMirror>();
-				providerInterfaces.addAll(providerImplementer.getInterfaces());
+				final var providerInterfaces = getProviderInterfaces(providerImplementer);
 
-				var currentType = providerImplementer;
-				while (currentType != null) {
-					final var superClass = currentType.getSuperclass();
+				if (providerInterfaces.isEmpty()) {
+					error(MISSING_SERVICES_ERROR, e, annotationMirror);
+					continue;
+				}
 
-					if (!TypeKind.NONE.equals(superClass.getKind())) {
-						final var declaredSuperType = (DeclaredType) superClass;
-						final var superClassElement = (TypeElement) declaredSuperType.asElement();
+				originatingElements.add(providerImplementer);
 
-						providerInterfaces.addAll(superClassElement.getInterfaces());
-						currentType = superClassElement;
-					} else {
-						currentType = null;
-					}
-				}
+				final var injectConstructor = findInjectConstructor(providerImplementer);
 
-				if (providerInterfaces.isEmpty()) {
-					error(MISSING_SERVICES_ERROR, e, annotationMirror);
+				indexEntries.put(getBinaryName(providerImplementer), createIndexEntry(providerImplementer, type, annotationMirror, injectConstructor));
+				generateFactory(providerImplementer, injectConstructor);
+
+				// the ServiceLoader only accepts providers with a public no-arg constructor, beans with an inject constructor are only resolvable by the index
+				if (injectConstructor != null) {
 					continue;
 				}
 
@@ -172,16 +236,7 @@ public class BeanProcessor extends AbstractProcessor {
 					log("provider implementer: " + providerImplementer.getQualifiedName());
 
 					if (checkImplementer(providerImplementer, providerType)) {
-						final var key = getBinaryName(providerType);
-						var values = providers.get(key);
-						if (values == null) {
-							values = new ArrayList<>(4);
-							providers.put(key, values);
-						}
-						
-						values.add(getBinaryName(providerImplementer));
-
-						providers.put(key, values);
+						providers.computeIfAbsent(getBinaryName(providerType), k -> new TreeSet<>()).add(getBinaryName(providerImplementer));
 					} else {
 						String message = "ServiceProviders must implement their service provider interface. "
 								+ providerImplementer.getQualifiedName() + " does not implement "
@@ -194,54 +249,391 @@ public class BeanProcessor extends AbstractProcessor {
 
 	}
 
-	private void generateConfigFiles() {
-		Filer filer = processingEnv.getFiler();
+	/**
+	 * Writes the services files and the bean index of all processed beans. Nothing is read from previous compilations: the processor is aggregating,
+	 * so all beans are processed again whenever one of them changes, and beans that have been deleted in the meantime must not be kept.
+	 */
+	private void generateResources() {
+		final var filer = processingEnv.getFiler();
+		final var originatingElements = this.originatingElements.toArray(new Element[0]);
 
-		for (String providerInterface : providers.keySet()) {
-			String resourceFile = "META-INF/services/" + providerInterface;
-			log("Working on resource file: " + resourceFile);
-			try {
-				SortedSet<String> allServices = new TreeSet<>();
-				try {
-					// would like to be able to print the full path
-					// before we attempt to get the resource in case the behavior
-					// of filer.getResource does change to match the spec, but there's
-					// no good way to resolve CLASS_OUTPUT without first getting a resource.
-					FileObject existingFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "",
-							resourceFile);
-					
-					log("Looking for existing resource file at " + existingFile.toUri());
-					Set<String> oldServices = ServicesFiles.readServiceFile(existingFile.openInputStream());
-					log("Existing service entries: " + oldServices);
-					allServices.addAll(oldServices);
-				} catch (IOException e) {
-					// According to the javadoc, Filer.getResource throws an exception
-					// if the file doesn't already exist. In practice this doesn't
-					// appear to be the case. Filer.getResource will happily return a
-					// FileObject that refers to a non-existent file but will throw
-					// IOException if you try to open an input stream for it.
-					log("Resource file did not already exist.");
-				}
+		for (final var provider : providers.entrySet()) {
+			final var resourceFile = "META-INF/services/" + provider.getKey();
+			log("New service file contents of " + resourceFile + ": " + provider.getValue());
 
-				Set<String> newServices = new HashSet<String>(providers.get(providerInterface));
-				if (allServices.containsAll(newServices)) {
-					log("No new service entries being added.");
-					return;
+			try {
+				final var fileObject = filer.createResource(StandardLocation.CLASS_OUTPUT, "", resourceFile, originatingElements);
+				try (var out = fileObject.openOutputStream()) {
+					ServicesFiles.writeServiceFile(provider.getValue(), out);
 				}
-
-				allServices.addAll(newServices);
-				log("New service file contents: " + allServices);
-				FileObject fileObject = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
-						resourceFile);
-				OutputStream out = fileObject.openOutputStream();
-				ServicesFiles.writeServiceFile(allServices, out);
-				out.close();
 				log("Wrote to: " + fileObject.toUri());
 			} catch (IOException e) {
 				fatalError("Unable to create " + resourceFile + ", " + e);
 				return;
 			}
 		}
+
+		if (indexEntries.isEmpty()) {
+			return;
+		}
+
+		try {
+			final var fileObject = filer.createResource(StandardLocation.CLASS_OUTPUT, "", BeanIndex.INDEX_PATH, originatingElements);
+			try (var out = fileObject.openOutputStream()) {
+				BeanIndex.write(indexEntries.values(), out);
+			}
+			log("Wrote bean index to: " + fileObject.toUri());
+		} catch (IOException e) {
+			fatalError("Unable to create " + BeanIndex.INDEX_PATH + ", " + e);
+		}
+	}
+
+	/**
+	 * Collects everything the {@link io.spotnext.inject.Context} needs to know about a bean, so it doesn't have to load and reflect on the class at runtime.
+	 */
+	private BeanIndex.Entry createIndexEntry(TypeElement implementer, Class<? extends Annotation> scope, AnnotationMirror scopeAnnotation,
+			ExecutableElement injectConstructor) {
+		final var ordered = implementer.getAnnotation(Ordered.class);
+		final var priority = ordered != null ? ordered.value() : Short.MAX_VALUE;
+
+		final var types = new TreeSet<String>(getTypeHierarchy(implementer));
+
+		final var injectFields = new LinkedHashMap<String, String>();
+		for (var currentType = implementer; currentType != null; currentType = getSuperclass(currentType)) {
+			for (final var field : getInjectFields(currentType)) {
+				injectFields.putIfAbsent(field.getSimpleName().toString(), getDependencyTypeName(field));
+			}
+		}
+
+		final var constructorParameters = new ArrayList<String>();
+		if (injectConstructor != null) {
+			for (final var parameter : injectConstructor.getParameters()) {
+				constructorParameters.add(getDependencyTypeName(parameter));
+			}
+		}
+
+		return new BeanIndex.Entry(getBinaryName(implementer), scope.getName(), priority, new ArrayList<>(types), injectFields, constructorParameters,
+				getBeanName(implementer, scopeAnnotation));
+	}
+
+	/**
+	 * Returns the index type of an inject field or constructor parameter. {@link Provider}, {@link Supplier} and {@link Lazy} dependencies are written as
+	 * their bean type with the {@link BeanIndex#DEFERRED_PREFIX}, as they are not resolved when the bean is created.
+	 */
+	private String getDependencyTypeName(VariableElement field) {
+		if (field.asType().getKind() == TypeKind.DECLARED) {
+			final var fieldType = (DeclaredType) field.asType();
+			final var fieldTypeName = asType(fieldType.asElement()).getQualifiedName().toString();
+
+			if (Supplier.class.getName().equals(fieldTypeName) || Provider.class.getName().equals(fieldTypeName)) {
+				final var typeArguments = fieldType.getTypeArguments();
+
+				if (typeArguments.size() == 1 && typeArguments.get(0).getKind() == TypeKind.DECLARED) {
+					return BeanIndex.DEFERRED_PREFIX + getTypeName(typeArguments.get(0));
+				}
+			} else if (getAnnotationMirror(field, Lazy.class).isPresent()) {
+				return BeanIndex.DEFERRED_PREFIX + getTypeName(fieldType);
+			}
+		}
+
+		return getTypeName(field.asType());
+	}
+
+	/**
+	 * Returns the name given by the {@code value} of the scope annotation, or the simple class name if there is none.
+	 */
+	private String getBeanName(TypeElement implementer, AnnotationMirror scopeAnnotation) {
+		if (scopeAnnotation != null) {
+			for (final var value : scopeAnnotation.getElementValues().entrySet()) {
+				if (value.getKey().getSimpleName().contentEquals("value")) {
+					final var name = value.getValue().getValue().toString().trim();
+
+					if (name.contains("|")) {
+						error("Bean names must not contain '|'", implementer, scopeAnnotation);
+					} else if (!name.isEmpty()) {
+						return name;
+					}
+				}
+			}
+		}
+
+		return implementer.getSimpleName().toString();
+	}
+
+	/**
+	 * Returns the constructor annotated with {@link Inject}, or null if the bean uses its no-arg constructor. Reports an error if there is more than one.
+	 */
+	private ExecutableElement findInjectConstructor(TypeElement implementer) {
+		ExecutableElement injectConstructor = null;
+
+		for (final var constructor : ElementFilter.constructorsIn(implementer.getEnclosedElements())) {
+			if (getAnnotationMirror(constructor, Inject.class).isPresent()) {
+				if (injectConstructor != null) {
+					error("Only one constructor may be annotated with @Inject", constructor, getAnnotationMirror(constructor, Inject.class).get());
+				}
+
+				injectConstructor = constructor;
+			}
+		}
+
+		return injectConstructor;
+	}
+
+	/**
+	 * Generates a {@link BeanFactory} that creates the bean with a direct constructor call and assigns all accessible inject fields directly. Fields the
+	 * factory can't access (eg. private ones) are injected by the {@link io.spotnext.inject.Context}. The ids of the injected beans are resolved once, as
+	 * every factory instance belongs to the bean definition of a single context, so the beans are looked up by {@code Context.getBean(int, Class)}.
+	 */
+	private void generateFactory(TypeElement implementer, ExecutableElement injectConstructor) {
+		final var binaryName = getBinaryName(implementer);
+
+		if (generatedFactories.contains(binaryName)) {
+			return;
+		}
+
+		if (!canGenerateFactory(implementer, injectConstructor)) {
+			log("Not generating factory for " + binaryName + ", it has no accessible constructor");
+			return;
+		}
+
+		final var packageName = processingEnv.getElementUtils().getPackageOf(implementer).getQualifiedName().toString();
+		final var factoryName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1) + BeanFactory.CLASS_NAME_SUFFIX;
+		final var beanType = implementer.getQualifiedName().toString();
+
+		final var source = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+
+		source.append("@javax.annotation.processing.Generated(\"").append(BeanProcessor.class.getName()).append("\")\n");
+		source.append("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n");
+		source.append("public final class ").append(factoryName).append(" implements ").append(BeanFactory.class.getName())
+				.append("<").append(beanType).append("> {\n\n");
+		source.append("\tprivate static final boolean WOVEN = ").append(beanType).append(".class.isAnnotationPresent(")
+				.append(Processed.class.getName()).append(".class);\n\n");
+		final var fieldsEnd = source.length();
+		final var beanIdTypes = new ArrayList<String>();
+
+		source.append("\t@Override\n");
+		source.append("\tpublic ").append(beanType).append(" newInstance(io.spotnext.inject.Context context) {\n");
+		source.append("\t\treturn new ").append(beanType).append("(");
+
+		if (injectConstructor != null) {
+			source.append(injectConstructor.getParameters().stream()
+					.map(parameter -> getInjectionExpression(parameter, beanIdTypes))
+					.collect(Collectors.joining(", ")));
+		}
+
+		source.append(");\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic void inject(io.spotnext.inject.Context context, ").append(beanType).append(" bean) {\n");
+		source.append("\t\tif (WOVEN) {\n");
+		source.append("\t\t\treturn;\n");
+		source.append("\t\t}\n");
+
+		for (var currentType = implementer; currentType != null; currentType = getSuperclass(currentType)) {
+			final var declaringType = currentType.getQualifiedName().toString();
+			final var target = currentType.equals(implementer) ? "bean" : "((" + declaringType + ") bean)";
+
+			for (final var field : getInjectFields(currentType)) {
+				if (field.getModifiers().contains(Modifier.STATIC)) {
+					continue;
+				}
+
+				final var fieldName = field.getSimpleName().toString();
+
+				final var expression = canAssignDirectly(field, currentType, packageName) ? getInjectionExpression(field, beanIdTypes) : null;
+
+				if (expression != null) {
+					source.append("\t\t").append(target).append(".").append(fieldName).append(" = ").append(expression).append(";\n");
+				} else {
+					source.append("\t\tcontext.injectField(bean, ").append(declaringType).append(".class, \"").append(fieldName).append("\");\n");
+				}
+			}
+		}
+
+		source.append("\t}\n");
+
+		if (!beanIdTypes.isEmpty()) {
+			source.insert(fieldsEnd, "\tprivate volatile int[] beanIds;\n\n");
+			source.append("\n");
+			source.append("\tprivate int[] getBeanIds(io.spotnext.inject.Context context) {\n");
+			source.append("\t\tint[] ids = beanIds;\n\n");
+			source.append("\t\tif (ids == null) {\n");
+			source.append("\t\t\tids = new int[] { ").append(beanIdTypes.stream()
+					.map(type -> "context.getBeanId(" + type + ".class)")
+					.collect(Collectors.joining(", "))).append(" };\n");
+			source.append("\t\t\tbeanIds = ids;\n");
+			source.append("\t\t}\n\n");
+			source.append("\t\treturn ids;\n");
+			source.append("\t}\n");
+		}
+
+		source.append("}\n");
+
+		final var qualifiedFactoryName = packageName.isEmpty() ? factoryName : packageName + "." + factoryName;
+
+		try {
+			final var sourceFile = processingEnv.getFiler().createSourceFile(qualifiedFactoryName, implementer);
+			try (var writer = sourceFile.openWriter()) {
+				writer.write(source.toString());
+			}
+			generatedFactories.add(binaryName);
+			log("Generated factory " + qualifiedFactoryName);
+		} catch (IOException e) {
+			fatalError("Unable to create " + qualifiedFactoryName + ", " + e);
+		}
+	}
+
+	/**
+	 * Returns the expression that resolves the value of the given inject field or constructor parameter, or null if it can't be resolved by the generated
+	 * factory.
+	 * 
+	 * @param beanIdTypes the types whose ids are resolved by the factory, beans looked up by their id are added to it
+	 */
+	private String getInjectionExpression(VariableElement field, List<String> beanIdTypes) {
+		if (field.asType().getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+
+		final var fieldType = (DeclaredType) field.asType();
+		final var fieldTypeName = asType(fieldType.asElement()).getQualifiedName().toString();
+
+		if (Supplier.class.getName().equals(fieldTypeName) || Provider.class.getName().equals(fieldTypeName)) {
+			final var typeArguments = fieldType.getTypeArguments();
+
+			if (typeArguments.size() != 1 || typeArguments.get(0).getKind() != TypeKind.DECLARED) {
+				return null;
+			}
+
+			final var beanType = asType(((DeclaredType) typeArguments.get(0)).asElement()).getQualifiedName();
+			return "context.getProvider(" + beanType + ".class)";
+		} else if (getAnnotationMirror(field, Lazy.class).isPresent()) {
+			return "context.getLazyBean(" + fieldTypeName + ".class)";
+		}
+
+		var index = beanIdTypes.indexOf(fieldTypeName);
+
+		if (index < 0) {
+			index = beanIdTypes.size();
+			beanIdTypes.add(fieldTypeName);
+		}
+
+		return "context.getBean(getBeanIds(context)[" + index + "], " + fieldTypeName + ".class)";
+	}
+
+	/**
+	 * A factory can only be generated for concrete, non-private top-level or static nested classes with a non-private no-arg constructor or a
+	 * non-private inject constructor, whose parameters can all be resolved by the factory.
+	 */
+	private boolean canGenerateFactory(TypeElement implementer, ExecutableElement injectConstructor) {
+		if (implementer.getKind() != ElementKind.CLASS) {
+			return false;
+		}
+
+		for (Element current = implementer; current instanceof TypeElement; current = current.getEnclosingElement()) {
+			final var modifiers = current.getModifiers();
+
+			if (modifiers.contains(Modifier.PRIVATE)
+					|| (((TypeElement) current).getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC))) {
+				return false;
+			}
+		}
+
+		if (implementer.getModifiers().contains(Modifier.ABSTRACT)) {
+			return false;
+		}
+
+		if (injectConstructor != null) {
+			return !injectConstructor.getModifiers().contains(Modifier.PRIVATE)
+					&& injectConstructor.getParameters().stream().allMatch(p -> getInjectionExpression(p, new ArrayList<>()) != null);
+		}
+
+		final var constructors = ElementFilter.constructorsIn(implementer.getEnclosedElements());
+
+		return constructors.stream()
+				.anyMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE));
+	}
+
+	/**
+	 * Checks if the generated factory, which is located in the given package, can assign the given field without reflection.
+	 */
+	private boolean canAssignDirectly(VariableElement field, TypeElement declaringType, String factoryPackage) {
+		final var modifiers = field.getModifiers();
+
+		if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || field.asType().getKind() != TypeKind.DECLARED) {
+			return false;
+		}
+
+		final var samePackage = processingEnv.getElementUtils().getPackageOf(declaringType).getQualifiedName().contentEquals(factoryPackage);
+
+		return samePackage || (modifiers.contains(Modifier.PUBLIC) && declaringType.getModifiers().contains(Modifier.PUBLIC));
+	}
+
+	/**
+	 * Returns the binary names of the given type and all its supertypes (except {@link Object}). The hierarchies are memoized, so shared supertypes are
+	 * only walked once.
+	 */
+	private Set<String> getTypeHierarchy(TypeElement element) {
+		final var binaryName = getBinaryName(element);
+		var hierarchy = typeHierarchies.get(binaryName);
+
+		if (hierarchy == null) {
+			hierarchy = new HashSet<>();
+			hierarchy.add(binaryName);
+
+			final var typeUtils = processingEnv.getTypeUtils();
+			for (final var superType : typeUtils.directSupertypes(element.asType())) {
+				final var superElement = (TypeElement) typeUtils.asElement(superType);
+
+				if (superElement != null && !superElement.getQualifiedName().contentEquals(Object.class.getName())) {
+					hierarchy.addAll(getTypeHierarchy(superElement));
+				}
+			}
+
+			typeHierarchies.put(binaryName, hierarchy);
+		}
+
+		return hierarchy;
+	}
+
+	/**
+	 * Returns the interfaces directly implemented by the given class and all its superclasses.
+	 */
+	private List<TypeMirror> getProviderInterfaces(TypeElement type) {
+		var interfaces = providerInterfaces.get(type);
+
+		if (interfaces == null) {
+			interfaces = new ArrayList<>(type.getInterfaces());
+
+			final var superclass = getSuperclass(type);
+			if (superclass != null) {
+				interfaces.addAll(getProviderInterfaces(superclass));
+			}
+
+			providerInterfaces.put(type, interfaces);
+		}
+
+		return interfaces;
+	}
+
+	/**
+	 * Returns the fields annotated with {@link Inject} that are declared by the given type.
+	 */
+	private List<VariableElement> getInjectFields(TypeElement type) {
+		var fields = injectFields.get(type);
+
+		if (fields == null) {
+			fields = ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+					.filter(f -> getAnnotationMirror(f, Inject.class).isPresent())
+					.collect(Collectors.toList());
+
+			injectFields.put(type, fields);
+		}
+
+		return fields;
 	}
 
 	/**
@@ -263,6 +655,32 @@ public class BeanProcessor extends AbstractProcessor {
 		return types.isSubtype(providerImplementer.asType(), providerType.asType());
 	}
 
+	/**
+	 * Returns the superclass of the given type or null if there is none.
+	 */
+	private TypeElement getSuperclass(TypeElement type) {
+		final var superClass = type.getSuperclass();
+
+		if (TypeKind.NONE.equals(superClass.getKind())) {
+			return null;
+		}
+
+		return (TypeElement) ((DeclaredType) superClass).asElement();
+	}
+
+	/**
+	 * Returns the binary name of the erasure of the given type, or its string representation for primitives and arrays.
+	 */
+	private String getTypeName(TypeMirror type) {
+		final var erasure = processingEnv.getTypeUtils().erasure(type);
+
+		if (erasure.getKind() == TypeKind.DECLARED) {
+			return getBinaryName((TypeElement) ((DeclaredType) erasure).asElement());
+		}
+
+		return erasure.toString();
+	}
+
 	/**
 	 * Returns the binary name of a reference type. For example, {@code com.google.Foo$Bar}, instead of {@code com.google.Foo.Bar}.
 	 */
@@ -0,0 +1,341 @@
+package io.spotnext.inject.trace;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import io.spotnext.inject.Context;
+import io.spotnext.inject.ContextListener;
+
+/**
+ * Records the creation tree of all beans built while tracing is active: which bean triggered the creation of which dependency and how long each one
+ * took, including its nested dependencies. The trace can be exported as JSON and as Graphviz DOT graph, both with the critical path highlighted.
+ * <p>
+ * The critical path is the chain of the slowest bean creation and, recursively, its slowest nested dependency. These are the beans that are worth to be
+ * made {@link io.spotnext.inject.annotations.Lazy} or to be created in parallel.
+ *
+ * <pre>
+ * final var trace = StartupTrace.start(Context.instance());
+ * // bootstrap the application
+ * trace.stop();
+ * trace.writeDot(Path.of("startup.dot"));
+ * </pre>
+ */
+public class StartupTrace implements ContextListener {
+	private final Context context;
+	private final long startNanos = System.nanoTime();
+
+	/**
+	 * The beans currently being created on each thread, the innermost one on top.
+	 */
+	private final ThreadLocal<Deque<Node>> creationStack = ThreadLocal.withInitial(ArrayDeque::new);
+
+	/**
+	 * Completed top-level creations. A node is only published after all its dependencies have been added on the creating thread.
+	 */
+	private final Queue<Node> roots = new ConcurrentLinkedQueue<>();
+
+	private StartupTrace(Context context) {
+		this.context = context;
+	}
+
+	/**
+	 * Starts tracing all bean creations of the given context.
+	 */
+	public static StartupTrace start(Context context) {
+		final var trace = new StartupTrace(context);
+		context.addListener(trace);
+
+		return trace;
+	}
+
+	/**
+	 * Stops tracing. The already recorded beans are kept.
+	 */
+	public void stop() {
+		context.removeListener(this);
+	}
+
+	@Override
+	public void beanCreationStarted(Class<?> beanType, boolean singleton) {
+		creationStack.get().push(new Node(beanType, singleton, System.nanoTime() - startNanos, Thread.currentThread().getName()));
+	}
+
+	@Override
+	public void beanCreated(Class<?> beanType, boolean singleton, long durationNanos) {
+		final var stack = creationStack.get();
+
+		// creations that failed never complete, discard them
+		while (!stack.isEmpty() && stack.peek().type != beanType) {
+			stack.pop();
+		}
+
+		if (stack.isEmpty()) {
+			return;
+		}
+
+		final var node = stack.pop();
+		node.durationNanos = durationNanos;
+
+		if (stack.isEmpty()) {
+			roots.add(node);
+		} else {
+			stack.peek().dependencies.add(node);
+		}
+	}
+
+	/**
+	 * Returns the recorded top-level creations, ordered by their start time.
+	 */
+	public List<Node> getRoots() {
+		return roots.stream()
+				.sorted(Comparator.comparingLong(Node::getStartNanos))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the chain of the slowest top-level creation and recursively its slowest dependency.
+	 */
+	public List<Node> getCriticalPath() {
+		final var path = new ArrayList<Node>();
+		var current = slowest(getRoots());
+
+		while (current != null) {
+			path.add(current);
+			current = slowest(current.dependencies);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Returns the names of the bean types that have been created more than once, mapped to the number of creations. These are usually prototypes that
+	 * could be singletons or injected as {@link io.spotnext.inject.Provider}.
+	 */
+	public Map<String, Integer> getBeansCreatedMoreThanOnce() {
+		final var counts = new TreeMap<String, Integer>();
+		forEachNode(getRoots(), node -> counts.merge(node.type.getName(), 1, Integer::sum));
+		counts.values().removeIf(count -> count < 2);
+
+		return counts;
+	}
+
+	/**
+	 * Exports the whole creation tree, the critical path and the beans created more than once as JSON.
+	 */
+	public String toJson() {
+		final var criticalPath = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		criticalPath.addAll(getCriticalPath());
+
+		final var json = new StringBuilder();
+		json.append("{\n  \"beans\": [");
+		appendJson(json, getRoots(), criticalPath, "    ");
+		json.append("],\n  \"criticalPath\": [");
+		json.append(getCriticalPath().stream().map(n -> quote(n.type.getName())).collect(Collectors.joining(", ")));
+		json.append("],\n  \"createdMoreThanOnce\": {");
+		json.append(getBeansCreatedMoreThanOnce().entrySet().stream()
+				.map(e -> quote(e.getKey()) + ": " + e.getValue())
+				.collect(Collectors.joining(", ")));
+		json.append("}\n}\n");
+
+		return json.toString();
+	}
+
+	/**
+	 * Exports the creation graph in the Graphviz DOT format. There is one node per bean type with its total creation time and the number of creations,
+	 * beans on the critical path are drawn in red, beans created more than once with a dashed border.
+	 */
+	public String toDot() {
+		final var totals = new LinkedHashMap<Class<?>, long[]>();
+		final var edges = new LinkedHashMap<String, Set<String>>();
+		final var roots = getRoots();
+
+		forEachNode(roots, node -> {
+			final var total = totals.computeIfAbsent(node.type, t -> new long[2]);
+			total[0] += node.durationNanos;
+			total[1]++;
+
+			for (final var dependency : node.dependencies) {
+				edges.computeIfAbsent(node.type.getName(), t -> new HashSet<>()).add(dependency.type.getName());
+			}
+		});
+
+		final var criticalPath = getCriticalPath().stream().map(n -> n.type.getName()).collect(Collectors.toList());
+
+		final var dot = new StringBuilder();
+		dot.append("digraph beans {\n");
+		dot.append("  node [shape=box];\n");
+
+		for (final var entry : totals.entrySet()) {
+			final var name = entry.getKey().getName();
+			final var count = entry.getValue()[1];
+
+			final var label = quote(entry.getKey().getSimpleName()) + " + \"\\n" + formatMillis(entry.getValue()[0]) + (count > 1 ? " (" + count + "x)" : "") + "\"";
+
+			dot.append("  ").append(quote(name)).append(" [label=").append(label);
+
+			if (criticalPath.contains(name)) {
+				dot.append(", color=red, fontcolor=red");
+			}
+			if (count > 1) {
+				dot.append(", style=dashed");
+			}
+
+			dot.append("];\n");
+		}
+
+		for (final var entry : edges.entrySet()) {
+			for (final var dependency : entry.getValue()) {
+				final var fromIndex = criticalPath.indexOf(entry.getKey());
+				final var critical = fromIndex >= 0 && fromIndex + 1 < criticalPath.size() && criticalPath.get(fromIndex + 1).equals(dependency);
+
+				dot.append("  ").append(quote(entry.getKey())).append(" -> ").append(quote(dependency));
+				dot.append(critical ? " [color=red, penwidth=2];\n" : ";\n");
+			}
+		}
+
+		dot.append("}\n");
+
+		return dot.toString();
+	}
+
+	public void writeJson(Path file) {
+		write(file, toJson());
+	}
+
+	public void writeDot(Path file) {
+		write(file, toDot());
+	}
+
+	private static void write(Path file, String content) {
+		try (Writer writer = Files.newBufferedWriter(file)) {
+			writer.write(content);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write startup trace to " + file, e);
+		}
+	}
+
+	private static void appendJson(StringBuilder json, List<Node> nodes, Set<Node> criticalPath, String indent) {
+		for (int i = 0; i < nodes.size(); i++) {
+			final var node = nodes.get(i);
+
+			json.append(i == 0 ? "\n" : ",\n").append(indent).append("{");
+			json.append("\"type\": ").append(quote(node.type.getName()));
+			json.append(", \"scope\": ").append(quote(node.singleton ? "singleton" : "prototype"));
+			json.append(", \"thread\": ").append(quote(node.thread));
+			json.append(", \"startNanos\": ").append(node.startNanos);
+			json.append(", \"durationNanos\": ").append(node.durationNanos);
+			json.append(", \"selfNanos\": ").append(node.getSelfNanos());
+			json.append(", \"criticalPath\": ").append(criticalPath.contains(node));
+			json.append(", \"dependencies\": [");
+
+			if (!node.dependencies.isEmpty()) {
+				appendJson(json, node.dependencies, criticalPath, indent + "  ");
+				json.append("\n").append(indent);
+			}
+
+			json.append("]}");
+		}
+	}
+
+	private static void forEachNode(List<Node> nodes, Consumer<Node> consumer) {
+		for (final var node : nodes) {
+			consumer.accept(node);
+			forEachNode(node.dependencies, consumer);
+		}
+	}
+
+	private static Node slowest(List<Node> nodes) {
+		return nodes.stream().max(Comparator.comparingLong(Node::getDurationNanos)).orElse(null);
+	}
+
+	private static String formatMillis(long nanos) {
+		return String.format("%.3f ms", nanos / 1_000_000d);
+	}
+
+	private static String quote(String value) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	/**
+	 * A single bean creation.
+	 */
+	public static final class Node {
+		private final Class<?> type;
+		private final boolean singleton;
+		private final long startNanos;
+		private final String thread;
+		private final List<Node> dependencies = new ArrayList<>();
+		private long durationNanos;
+
+		Node(Class<?> type, boolean singleton, long startNanos, String thread) {
+			this.type = type;
+			this.singleton = singleton;
+			this.startNanos = startNanos;
+			this.thread = thread;
+		}
+
+		public Class<?> getType() {
+			return type;
+		}
+
+		public boolean isSingleton() {
+			return singleton;
+		}
+
+		/**
+		 * The start of the creation, relative to the start of the trace.
+		 */
+		public long getStartNanos() {
+			return startNanos;
+		}
+
+		/**
+		 * The wall time of the creation, including all nested dependencies.
+		 */
+		public long getDurationNanos() {
+			return durationNanos;
+		}
+
+		/**
+		 * The wall time of the creation without the nested dependencies.
+		 */
+		public long getSelfNanos() {
+			return durationNanos - dependencies.stream().mapToLong(Node::getDurationNanos).sum();
+		}
+
+		public String getThread() {
+			return thread;
+		}
+
+		/**
+		 * The dependencies that have been created while creating this bean, ordered by their start time.
+		 */
+		public List<Node> getDependencies() {
+			return Collections.unmodifiableList(dependencies);
+		}
+
+		@Override
+		public String toString() {
+			return type.getName() + " (" + formatMillis(durationNanos) + ")";
+		}
+	}
+}
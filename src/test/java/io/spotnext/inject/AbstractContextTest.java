@@ -0,0 +1,29 @@
+package io.spotnext.inject;
+
+import org.junit.Before;
+
+import io.spotnext.inject.instrumentation.InjectionTransformer;
+import io.spotnext.instrumentation.DynamicInstrumentationLoader;
+
+/**
+ * Base class of the tests that use the {@link Context}. Every test starts with a new context, so its results don't depend on the beans and metrics
+ * of the tests that ran before.
+ */
+public abstract class AbstractContextTest {
+
+	static {
+		// dynamically attach java agent to JVM if not already present and add the injection transformer for load-time injection
+		DynamicInstrumentationLoader.initialize(InjectionTransformer.class);
+	}
+
+	/**
+	 * The context of the system classloader, created for the current test.
+	 */
+	protected Context context;
+
+	@Before
+	public void createContext() {
+		Context.instance().close();
+		context = Context.instance();
+	}
+}
@@ -0,0 +1,45 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.AsyncConsumer;
+import io.spotnext.inject.beans.AsyncService;
+import io.spotnext.inject.beans.PrototypeBean;
+import io.spotnext.inject.beans.impl.AsyncOwnerImpl;
+import io.spotnext.inject.beans.impl.AsyncServiceImpl;
+import io.spotnext.inject.beans.impl.AsyncWorkerImpl;
+import io.spotnext.inject.beans.impl.PrototypeBeanImpl;
+
+public class AsyncInitTest extends AbstractContextTest {
+
+	@Test
+	public void testAsyncInit() throws Exception {
+
+		// the dependent bean can be created while the async singleton is still initializing
+		final var consumer = context.getBean(AsyncConsumer.class);
+		final var asyncService = context.getBeanAsync(AsyncService.class);
+
+		assertEquals("async", consumer.getAsyncService().getValue());
+		assertTrue(asyncService.get(5, TimeUnit.SECONDS) instanceof AsyncServiceImpl);
+		assertSame(asyncService.get(), context.getBean(AsyncService.class));
+		assertSame(context.getBean(AsyncService.class), context.getBeanAsync(AsyncService.class).getNow(null));
+		assertTrue(context.getBeanAsync(PrototypeBean.class).get(5, TimeUnit.SECONDS) instanceof PrototypeBeanImpl);
+	}
+
+	@Test
+	public void testAsyncInitRequestedDuringCreation() throws Exception {
+
+		// the worker is initialized asynchronously and needs the owner, which is created on this thread and needs the worker itself
+		final var worker = context.getBeanAsync(AsyncWorkerImpl.class);
+		final var owner = context.getBean(AsyncOwnerImpl.class);
+
+		assertSame(worker.get(10, TimeUnit.SECONDS), owner.getWorker());
+		assertSame(owner, worker.get().getOwner());
+	}
+}
@@ -0,0 +1,36 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.PrototypeBean;
+import io.spotnext.inject.beans.SingletonService;
+import io.spotnext.inject.beans.impl.DeferredServiceImpl;
+
+public class BeanIndexTest {
+
+	@Test
+	public void testDeferredDependencies() {
+		final var entry = BeanIndex.load(getClass().getClassLoader()).getEntry(DeferredServiceImpl.class.getName());
+
+		assertEquals(PrototypeBean.class.getName(), entry.getInjectFields().get("prototype"));
+		assertEquals(BeanIndex.DEFERRED_PREFIX + SingletonService.class.getName(), entry.getInjectFields().get("provider"));
+		assertEquals(BeanIndex.DEFERRED_PREFIX + SingletonService.class.getName(), entry.getInjectFields().get("supplier"));
+		assertEquals(BeanIndex.DEFERRED_PREFIX + SingletonService.class.getName(), entry.getInjectFields().get("lazy"));
+
+		// Provider, Supplier and @Lazy dependencies don't have to be created before the bean
+		assertEquals(List.of(PrototypeBean.class.getName()), entry.getEagerDependencies());
+		assertEquals(List.of(PrototypeBean.class), InjectionPlan.of(DeferredServiceImpl.class).getEagerDependencyTypes());
+	}
+
+	@Test
+	public void testEntryWithoutDeferredDependencies() {
+		final var entry = BeanIndex.Entry.parse("a.Impl|io.spotnext.inject.annotations.Singleton|1|a.Impl|service=a.Service|a.Other|impl");
+
+		assertEquals(List.of("a.Service", "a.Other"), entry.getEagerDependencies());
+		assertEquals(entry.format(), BeanIndex.Entry.parse(entry.format()).format());
+	}
+}
@@ -46,6 +46,33 @@ public class BeanProcessorTest {
 								JavaFileObjects.forResource("META-INF/services/test.AnotherService"));
 	}
 
+	@Test
+	public void beanIndex() {
+		assertThat(
+				JavaFileObjects.forResource("test/SomeService.java"),
+				JavaFileObjects.forResource("test/SomeServiceProvider1.java"),
+				JavaFileObjects.forResource("test/SomeServiceProvider2.java"),
+				JavaFileObjects.forResource("test/Enclosing.java"),
+				JavaFileObjects.forResource("test/AnotherService.java"),
+				JavaFileObjects.forResource("test/AnotherServiceProvider.java"))
+						.processedWith(new BeanProcessor())
+						.compilesWithoutError()
+						.and().generatesFiles(
+								JavaFileObjects.forResource("META-INF/inject/test.beans.idx"));
+	}
+
+	@Test
+	public void beanFactory() {
+		assertThat(
+				JavaFileObjects.forResource("test/SomeService.java"),
+				JavaFileObjects.forResource("test/AnotherService.java"),
+				JavaFileObjects.forResource("test/InjectedServiceProvider.java"))
+						.processedWith(new BeanProcessor())
+						.compilesWithoutError()
+						.and().generatesSources(
+								JavaFileObjects.forResource("test/InjectedServiceProvider$$Factory.java"));
+	}
+
 	@Test
 	public void multiService() {
 		assertThat(
@@ -59,6 +86,17 @@ public class BeanProcessorTest {
 								JavaFileObjects.forResource("META-INF/services/test.AnotherServiceMulti"));
 	}
 
+	@Test
+	public void debugTiming() {
+		assertThat(
+				JavaFileObjects.forResource("test/SomeService.java"),
+				JavaFileObjects.forResource("test/SomeServiceProvider1.java"))
+						.withCompilerOptions("-Adebug")
+						.processedWith(new BeanProcessor())
+						.compilesWithoutError()
+						.withNoteContaining("BeanProcessor processed 1 beans");
+	}
+
 	@Test
 	public void badMultiService() {
 		assertThat(JavaFileObjects.forResource("test/NoServices.java"))
@@ -0,0 +1,90 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.LifecycleClient;
+import io.spotnext.inject.beans.LifecycleService;
+import io.spotnext.inject.beans.SingletonService;
+import io.spotnext.inject.beans.impl.LifecycleClientImpl;
+import io.spotnext.inject.beans.impl.LifecycleServiceImpl;
+
+public class ContextCloseTest extends AbstractContextTest {
+
+	@Test
+	public void testCurrentProviderSurvivesClose() {
+		final var provider = Context.getCurrentProvider(SingletonService.class);
+		final var bean = provider.get();
+
+		assertSame(context.getBean(SingletonService.class), bean);
+
+		context.close();
+
+		final var next = Context.instance();
+
+		assertFalse(next.isClosed());
+		assertNotSame(bean, provider.get());
+		assertSame(next.getBean(SingletonService.class), provider.get());
+	}
+
+	@Test
+	public void testCloseUnregistersBeforeDestruction() {
+		context.getBean(LifecycleService.class);
+
+		context.close();
+
+		// the service looks up the current context while it is destroyed
+		assertNotSame(context, LifecycleServiceImpl.destroyedIn);
+	}
+
+	@Test
+	public void testCloseContext() {
+		context.getBean(SingletonService.class);
+
+		context.close();
+
+		assertTrue(context.isClosed());
+		assertNotSame(context, Context.instance());
+		assertSame(Context.instance(), Context.instance(ContextCloseTest.class));
+		assertThrows(IllegalStateException.class, () -> context.getBean(SingletonService.class));
+	}
+
+	@Test
+	public void testLifecycleCallbacks() {
+		final var client = context.getBean(LifecycleClient.class);
+
+		assertTrue(client.getLifecycleService().isInitialized());
+
+		LifecycleServiceImpl.DESTROYED.clear();
+		final var report = context.close(Duration.ofSeconds(5));
+
+		// the client depends on the service, so it has to be destroyed first
+		assertEquals(List.of(LifecycleClientImpl.class, LifecycleServiceImpl.class), LifecycleServiceImpl.DESTROYED);
+		assertTrue(report.isComplete());
+		assertTrue(report.getFailures().isEmpty());
+		assertTrue(report.getDestructionTimes().get(LifecycleClientImpl.class).toMillis() >= 50);
+		assertTrue(context.close(Duration.ofSeconds(5)).getDestructionTimes().isEmpty());
+	}
+
+	@Test
+	public void testDestructionOrderAfterInvalidation() {
+		context.getBean(LifecycleClient.class);
+
+		// the definitions are gone and can't be resolved again once the context is closed
+		context.invalidateResolutionCache();
+
+		LifecycleServiceImpl.DESTROYED.clear();
+		context.close(Duration.ofSeconds(5));
+
+		assertEquals(List.of(LifecycleClientImpl.class, LifecycleServiceImpl.class), LifecycleServiceImpl.DESTROYED);
+	}
+}
@@ -0,0 +1,42 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.PrototypeBean;
+import io.spotnext.inject.beans.SingletonService;
+import io.spotnext.inject.jmx.ContextMetrics;
+
+public class ContextMetricsTest extends AbstractContextTest {
+
+	@Test
+	public void testContextMetrics() throws Exception {
+
+		// resolve and create everything upfront, so only the requests of the test are counted
+		context.getBean(SingletonService.class);
+		context.getBean(PrototypeBean.class);
+
+		final var metrics = ContextMetrics.register(context);
+
+		try {
+			context.getBean(SingletonService.class);
+			context.getBean(SingletonService.class);
+			context.getBean(PrototypeBean.class);
+
+			assertEquals(3, metrics.getBeanRequests());
+			assertEquals(2L, (long) metrics.getBeanRequestsByType().get(SingletonService.class.getName()));
+			assertEquals(2, metrics.getSingletonCacheHits());
+			assertEquals(1, metrics.getPrototypesCreated());
+			assertEquals(1, metrics.getPrototypeCreationHistogram().values().stream().mapToLong(Long::longValue).sum());
+			assertEquals(3L, ManagementFactory.getPlatformMBeanServer().getAttribute(metrics.getObjectName(), "BeanRequests"));
+		} finally {
+			metrics.unregister();
+		}
+
+		context.getBean(PrototypeBean.class);
+		assertEquals(1, metrics.getPrototypesCreated());
+	}
+}
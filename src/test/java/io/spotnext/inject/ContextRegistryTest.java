@@ -0,0 +1,91 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Enumeration;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.impl.PrototypeBeanImpl;
+
+public class ContextRegistryTest extends AbstractContextTest {
+
+	@Test
+	public void testContextDoesNotPinClassloader() throws Exception {
+		final var classLoader = new WeakReference<ClassLoader>(useIsolatedContext());
+
+		for (int i = 0; i < 50 && classLoader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+
+		assertNull(classLoader.get());
+	}
+
+	@Test
+	public void testContextOfClassloaderIsReused() throws Exception {
+		try (final var classLoader = new IsolatingClassLoader()) {
+			final var isolatedClass = classLoader.loadClass(PrototypeBeanImpl.class.getName());
+
+			assertSame(Context.instance(isolatedClass), Context.instance(isolatedClass));
+		}
+	}
+
+	/**
+	 * Creates a context for a new classloader and uses it, without closing it.
+	 */
+	private ClassLoader useIsolatedContext() throws Exception {
+		final var classLoader = new IsolatingClassLoader();
+		final var isolatedClass = classLoader.loadClass(PrototypeBeanImpl.class.getName());
+		final var isolatedContext = Context.instance(isolatedClass);
+
+		assertNotNull(isolatedContext.getBean(isolatedClass));
+		assertSame(isolatedClass, isolatedContext.getBean(isolatedClass).getClass());
+
+		return classLoader;
+	}
+
+	/**
+	 * Defines the {@link PrototypeBeanImpl} (and its generated classes) itself, all other classes are loaded by the parent.
+	 */
+	private static class IsolatingClassLoader extends URLClassLoader {
+
+		IsolatingClassLoader() {
+			super(new URL[] { PrototypeBeanImpl.class.getProtectionDomain().getCodeSource().getLocation() },
+					PrototypeBeanImpl.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith(PrototypeBeanImpl.class.getName())) {
+				return super.loadClass(name, resolve);
+			}
+
+			synchronized (getClassLoadingLock(name)) {
+				var type = findLoadedClass(name);
+
+				if (type == null) {
+					type = findClass(name);
+				}
+
+				if (resolve) {
+					resolveClass(type);
+				}
+
+				return type;
+			}
+		}
+
+		@Override
+		public Enumeration<URL> findResources(String name) {
+			// the bean index is already found by the parent
+			return Collections.emptyEnumeration();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.SingletonService;
+import io.spotnext.inject.beans.WovenClient;
+import io.spotnext.inject.beans.WovenService;
+import io.spotnext.inject.beans.impl.PrototypeBeanImpl;
+import io.spotnext.inject.beans.impl.WovenServiceImpl;
+
+public class InjectionModeTest extends AbstractContextTest {
+
+	@Test
+	public void testWovenBeanWithFactory() throws Exception {
+		final var modes = new ConcurrentHashMap<Class<?>, ContextListener.InjectionMode>();
+		final var listener = new ContextListener() {
+			@Override
+			public void beanInjected(Class<?> beanType, InjectionMode mode) {
+				modes.put(beanType, mode);
+			}
+		};
+
+		assertNotNull(Class.forName(WovenServiceImpl.class.getName() + BeanFactory.CLASS_NAME_SUFFIX));
+
+		context.addListener(listener);
+		try {
+			final var bean = context.getBean(WovenService.class);
+
+			assertNull(bean.getPrototype());
+			assertEquals(Map.of(WovenServiceImpl.class, ContextListener.InjectionMode.WOVEN), modes);
+		} finally {
+			context.removeListener(listener);
+		}
+	}
+
+	@Test
+	public void testWovenInjection() {
+		final var client = context.getBean(WovenClient.class);
+		final var other = context.getBean(WovenClient.class);
+
+		// the handles are bound on first use, singletons to their instance
+		assertSame(context.getBean(SingletonService.class), client.getSingletonService());
+		assertSame(client.getSingletonService(), other.getSingletonService());
+		assertTrue(client.getPrototype() instanceof PrototypeBeanImpl);
+		assertNotSame(client.getPrototype(), other.getPrototype());
+
+		context.invalidateResolutionCache();
+		assertSame(context.getBean(SingletonService.class), context.getBean(WovenClient.class).getSingletonService());
+
+		// the handles of the class are bound to the next context once the previous one is closed
+		context.close();
+		final var next = Context.instance();
+
+		assertSame(next.getBean(SingletonService.class), next.getBean(WovenClient.class).getSingletonService());
+		assertNotSame(client.getSingletonService(), next.getBean(WovenClient.class).getSingletonService());
+	}
+}
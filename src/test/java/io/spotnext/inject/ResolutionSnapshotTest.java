@@ -0,0 +1,90 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ResolutionSnapshotTest extends AbstractContextTest {
+
+	@Test
+	public void testFingerprintOfClassDirectory() throws Exception {
+		final var directory = Files.createTempDirectory("inject");
+		final var classFile = Files.createDirectories(directory.resolve("com/example")).resolve("Service.class");
+		final var servicesFile = Files.createDirectories(directory.resolve("META-INF/services")).resolve("com.example.Service");
+		final var indexFile = Files.createDirectories(directory.resolve("META-INF/inject")).resolve("beans.idx");
+		Files.write(classFile, new byte[] { 1 });
+		Files.writeString(servicesFile, "com.example.ServiceImpl");
+		Files.writeString(indexFile, "com.example.ServiceImpl|io.spotnext.inject.annotations.Singleton|1|com.example.Service|||");
+
+		try (var classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() }, null)) {
+			final var fingerprint = ResolutionSnapshot.fingerprint(classLoader, List.of());
+			assertEquals(fingerprint, ResolutionSnapshot.fingerprint(classLoader, List.of()));
+
+			// class files are not checked, the bean index lists all beans
+			Files.write(classFile, new byte[] { 1, 2 });
+			assertEquals(fingerprint, ResolutionSnapshot.fingerprint(classLoader, List.of()));
+
+			// changes in subdirectories don't touch the modification time of the classpath entry
+			final var lastModified = Files.getLastModifiedTime(directory);
+			Files.writeString(servicesFile, "com.example.OtherServiceImpl");
+			Files.setLastModifiedTime(directory, lastModified);
+
+			final var changedServices = ResolutionSnapshot.fingerprint(classLoader, List.of());
+			assertNotEquals(fingerprint, changedServices);
+
+			Files.writeString(indexFile, "com.example.ServiceImpl|io.spotnext.inject.annotations.Prototype|1|com.example.Service|||");
+			assertNotEquals(changedServices, ResolutionSnapshot.fingerprint(classLoader, List.of()));
+		} finally {
+			for (final var file : List.of(classFile, classFile.getParent(), classFile.getParent().getParent(), servicesFile, servicesFile.getParent(),
+					indexFile, indexFile.getParent(), indexFile.getParent().getParent(), directory)) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Test
+	public void testFailedSnapshotDoesNotFailPreInstantiation() throws Exception {
+		final var file = Files.createTempFile("inject", ".snapshot");
+
+		// the snapshot can't be written, as its parent is a file
+		System.setProperty(Context.SNAPSHOT_PROPERTY, file.resolve("snapshot").toString());
+		try {
+			context.preInstantiateSingletons().get(10, TimeUnit.SECONDS);
+
+			assertTrue(context.isWarm());
+		} finally {
+			System.clearProperty(Context.SNAPSHOT_PROPERTY);
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testWriteReplacesSnapshot() throws Exception {
+		final var file = Files.createTempFile("inject", ".snapshot");
+
+		try {
+			final var entry = new ResolutionSnapshot.Entry("a.Service", "a.Impl", BeanDefinition.Scope.SINGLETON, (short) 1,
+					BeanDefinition.Source.BEAN_INDEX, false);
+
+			ResolutionSnapshot.write(file, "first", List.of(entry));
+			ResolutionSnapshot.write(file, "second", List.of(entry));
+
+			assertEquals(1, ResolutionSnapshot.read(file, "second").size());
+
+			// no temporary files are left behind
+			try (var files = Files.list(file.getParent())) {
+				assertTrue(files.noneMatch(f -> f.getFileName().toString().startsWith(file.getFileName().toString()) && f.toString().endsWith(".tmp")));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
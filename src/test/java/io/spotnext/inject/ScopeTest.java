@@ -0,0 +1,54 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.RequestBean;
+
+public class ScopeTest extends AbstractContextTest {
+
+	@Test
+	public void testLazyScopedBean() {
+		final var lazy = context.getLazyBean(RequestBean.class);
+		final int first;
+
+		// the proxy delegates hashCode() to the bean, so it reveals which instance is used
+		try (var scope = context.enterRequestScope()) {
+			first = lazy.hashCode();
+
+			assertEquals(context.getBean(RequestBean.class).hashCode(), first);
+		}
+
+		try (var scope = context.enterRequestScope()) {
+			final var bean = context.getBean(RequestBean.class);
+
+			assertEquals(bean.hashCode(), lazy.hashCode());
+			assertNotEquals(first, lazy.hashCode());
+		}
+	}
+
+	@Test
+	public void testRequestScopeStorageIsReused() {
+		final RequestBean bean;
+		final ScopeStorage storage;
+
+		try (var scope = context.enterRequestScope()) {
+			bean = context.getBean(RequestBean.class);
+			storage = scope.getStorage();
+
+			// nested scopes can't share the storage of the enclosing one
+			try (var nested = context.enterRequestScope()) {
+				assertNotSame(storage, nested.getStorage());
+			}
+		}
+
+		try (var scope = context.enterRequestScope()) {
+			assertSame(storage, scope.getStorage());
+			assertNotSame(bean, context.getBean(RequestBean.class));
+		}
+	}
+}
@@ -1,26 +1,41 @@
 package io.spotnext.inject;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+import io.spotnext.inject.beans.ConstructorService;
+import io.spotnext.inject.beans.DeferredSampleBean;
+import io.spotnext.inject.beans.PooledBean;
 import io.spotnext.inject.beans.PrototypeBean;
 import io.spotnext.inject.beans.SampleBean;
 import io.spotnext.inject.beans.SingletonService;
+import io.spotnext.inject.beans.impl.Dummy1ServiceImpl;
+import io.spotnext.inject.beans.impl.Dummy2ServiceImpl;
+import io.spotnext.inject.beans.impl.PrototypeBeanImpl;
+import io.spotnext.inject.beans.impl.RequestScopedBeanImpl;
 import io.spotnext.inject.beans.impl.SingletonServiceImpl;
-import io.spotnext.inject.instrumentation.InjectionTransformer;
-import io.spotnext.instrumentation.DynamicInstrumentationLoader;
+import io.spotnext.inject.beans.impl.ThreadScopedBeanImpl;
+import io.spotnext.inject.trace.StartupTrace;
 
 
-public class ServiceLoaderTest {
+public class ServiceLoaderTest extends AbstractContextTest {
 
-	static {
-		// dynamically attach java agent to JVM if not already present and add the injection transformer for load-time injection
-		DynamicInstrumentationLoader.initialize(InjectionTransformer.class);
-	}
-	
 	@Test
 	public void testPrototype() {
 		final var prototypeBean1 = Context.instance().getBean(PrototypeBean.class);
@@ -55,4 +70,205 @@ public class ServiceLoaderTest {
 		
 		assertNotNull(sampleBean.getSingletonService());
 	}
+
+	@Test
+	public void testInvalidateResolutionCache() {
+		final var singleton = Context.instance().getBean(SingletonService.class);
+
+		Context.instance().invalidateResolutionCache();
+
+		assertNotNull(Context.instance().getBean(PrototypeBean.class));
+		assertSame(singleton, Context.instance().getBean(SingletonService.class));
+	}
+
+	@Test
+	public void testPreInstantiateSingletons() throws Exception {
+		Context.instance().preInstantiateSingletons().get();
+
+		assertTrue(Context.instance().isWarm());
+		assertNotNull(Context.instance().getBean(SingletonService.class).getInjectedBean());
+	}
+
+	@Test
+	public void testDeferredInjection() {
+		final var sampleBean = new DeferredSampleBean();
+
+		Context.instance().injectBeans(sampleBean);
+
+		final var singleton = Context.instance().getBean(SingletonService.class);
+
+		assertNotEquals(sampleBean.getPrototypeProvider().get(), sampleBean.getPrototypeProvider().get());
+		assertSame(singleton, sampleBean.getSingletonSupplier().get());
+		assertSame(singleton.getInjectedBean(), sampleBean.getLazySingleton().getInjectedBean());
+	}
+
+	@Test
+	public void testConstructorInjection() {
+		final var constructorService = Context.instance().getBean(ConstructorService.class);
+
+		assertSame(Context.instance().getBean(SingletonService.class), constructorService.getSingletonService());
+		assertNotEquals(constructorService.getPrototypeProvider().get(), constructorService.getPrototypeProvider().get());
+	}
+
+	@Test
+	public void testFlightRecorderEvents() throws Exception {
+		final var dump = Files.createTempFile("inject", ".jfr");
+
+		try (var recording = new Recording()) {
+			recording.enable("io.spotnext.inject.BeanResolution");
+			recording.enable("io.spotnext.inject.BeanInstantiation");
+			recording.start();
+
+			Context.instance().getBean(PrototypeBean.class);
+
+			recording.stop();
+			recording.dump(dump);
+		}
+
+		try {
+			final var events = RecordingFile.readAllEvents(dump);
+
+			assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("io.spotnext.inject.BeanResolution")
+					&& e.getClass("beanType").getName().equals(PrototypeBean.class.getName())
+					&& "prototype".equals(e.getString("scope"))));
+			assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("io.spotnext.inject.BeanInstantiation")));
+		} finally {
+			Files.delete(dump);
+		}
+	}
+
+	@Test
+	public void testStartupTrace() {
+		final var trace = StartupTrace.start(Context.instance());
+
+		Context.instance().getBean(PrototypeBean.class);
+		Context.instance().getBean(PrototypeBean.class);
+
+		trace.stop();
+
+		assertEquals(2, trace.getRoots().size());
+		assertEquals(Integer.valueOf(2), trace.getBeansCreatedMoreThanOnce().get(PrototypeBeanImpl.class.getName()));
+		assertEquals(1, trace.getCriticalPath().size());
+		assertTrue(trace.toJson().contains("\"criticalPath\": true"));
+		assertTrue(trace.toDot().contains("style=dashed"));
+	}
+
+	@Test
+	public void testResolutionSnapshot() throws Exception {
+		final var snapshot = Files.createTempFile("inject", ".snapshot");
+
+		try {
+			final var singleton = context.getBean(SingletonService.class);
+			context.getBean(PrototypeBean.class);
+			context.writeResolutionSnapshot(snapshot);
+
+			context.invalidateResolutionCache();
+			assertTrue(context.loadResolutionSnapshot(snapshot));
+			assertSame(singleton, context.getBean(SingletonService.class));
+			assertNotEquals(context.getBean(PrototypeBean.class), context.getBean(PrototypeBean.class));
+
+			Files.write(snapshot, Files.readString(snapshot).replaceAll("fingerprint=\\w+", "fingerprint=outdated").getBytes());
+			assertFalse(context.loadResolutionSnapshot(snapshot));
+		} finally {
+			Files.delete(snapshot);
+		}
+	}
+
+	@Test
+	public void testGetBeansOrdered() {
+		final var beans = Context.instance().getBeans(SingletonService.class);
+
+		assertEquals(3, beans.size());
+		assertEquals(SingletonServiceImpl.class, beans.get(0).getClass());
+		assertSame(Context.instance().getBean(SingletonService.class), beans.get(0));
+		assertSame(beans, Context.instance().getBeans(SingletonService.class));
+		assertThrows(UnsupportedOperationException.class, () -> beans.add(beans.get(0)));
+
+		final var visited = new ArrayList<SingletonService>();
+		Context.instance().forEachBean(SingletonService.class, visited::add);
+
+		assertEquals(beans, visited);
+	}
+
+	@Test
+	public void testNamedBeans() {
+		final var dummy = Context.instance().getBean("dummy", SingletonService.class);
+
+		assertEquals(Dummy1ServiceImpl.class, dummy.getClass());
+		assertSame(dummy, Context.instance().getBean("dummy", SingletonService.class));
+		assertEquals(Dummy2ServiceImpl.class, Context.instance().getBean("Dummy2ServiceImpl", SingletonService.class).getClass());
+		assertThrows(BeanException.class, () -> Context.instance().getBean("Dummy1ServiceImpl", SingletonService.class));
+		assertThrows(BeanException.class, () -> Context.instance().getBean("dummy", PrototypeBean.class));
+	}
+
+	@Test
+	public void testThreadScope() throws Exception {
+		final var bean = context.getBean(ThreadScopedBeanImpl.class);
+
+		assertSame(bean, context.getBean(ThreadScopedBeanImpl.class));
+
+		final var executor = Executors.newSingleThreadExecutor();
+		try {
+			assertNotSame(bean, executor.submit(() -> context.getBean(ThreadScopedBeanImpl.class)).get());
+		} finally {
+			executor.shutdown();
+		}
+
+		context.clearThreadScope();
+
+		assertNotSame(bean, context.getBean(ThreadScopedBeanImpl.class));
+	}
+
+	@Test
+	public void testRequestScope() {
+
+		assertThrows(BeanException.class, () -> context.getBean(RequestScopedBeanImpl.class));
+
+		try (var scope = context.enterRequestScope()) {
+			final var bean = context.getBean(RequestScopedBeanImpl.class);
+
+			assertSame(scope, context.getRequestScope());
+			assertSame(bean, context.getBean(RequestScopedBeanImpl.class));
+
+			try (var nested = context.enterRequestScope()) {
+				assertNotSame(bean, context.getBean(RequestScopedBeanImpl.class));
+			}
+
+			assertSame(bean, context.getBean(RequestScopedBeanImpl.class));
+		}
+
+		assertNull(context.getRequestScope());
+		assertThrows(BeanException.class, () -> context.getBean(RequestScopedBeanImpl.class));
+	}
+
+	@Test
+	public void testPooledBeans() {
+		final var bean = context.getBean(PooledBean.class);
+		bean.getBuffer().append("state");
+
+		context.release(bean);
+
+		final var reused = context.getBean(PooledBean.class);
+		final var pool = context.getPools().iterator().next();
+
+		assertSame(bean, reused);
+		assertEquals(0, reused.getBuffer().length());
+		assertNotSame(reused, context.getBean(PooledBean.class));
+		assertEquals(1, pool.getHits());
+		assertEquals(2, pool.getMisses());
+		assertThrows(IllegalArgumentException.class, () -> context.release(context.getBean(PrototypeBean.class)));
+	}
+
+	@Test
+	public void testBeanIds() {
+		final var singletonId = context.getBeanId(SingletonService.class);
+		final var prototypeId = context.getBeanId(PrototypeBean.class);
+
+		assertEquals(singletonId, context.getBeanId(SingletonServiceImpl.class));
+		assertNotEquals(singletonId, prototypeId);
+		assertSame(context.getBean(SingletonService.class), context.getBean(singletonId));
+		assertTrue(context.<Object> getBean(prototypeId) instanceof PrototypeBeanImpl);
+		assertNotSame(context.getBean(prototypeId), context.getBean(prototypeId));
+		assertThrows(BeanException.class, () -> context.getBean(Integer.MAX_VALUE));
+	}
 }
@@ -0,0 +1,82 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.CircularA;
+import io.spotnext.inject.beans.CircularB;
+import io.spotnext.inject.beans.SingletonService;
+
+public class SingletonCreationTest extends AbstractContextTest {
+
+	@Test
+	public void testConcurrentSingletonCreation() throws Exception {
+		final var executor = Executors.newFixedThreadPool(8);
+		final var start = new CountDownLatch(1);
+
+		try {
+			final var results = new ArrayList<Future<SingletonService>>();
+
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return context.getBean(SingletonService.class);
+				}));
+			}
+
+			start.countDown();
+
+			final var first = results.get(0).get(10, TimeUnit.SECONDS);
+			assertNotNull(first);
+
+			for (final var result : results) {
+				assertSame(first, result.get(10, TimeUnit.SECONDS));
+			}
+
+			assertSame(first, context.getBean(SingletonService.class));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentCircularSingletonCreation() throws Exception {
+		final var executor = Executors.newFixedThreadPool(2);
+		final var start = new CountDownLatch(1);
+
+		try {
+			final var a = executor.submit(() -> {
+				start.await();
+				final var bean = context.getBean(CircularA.class);
+
+				// no singleton is handed out to another thread before it is initialized
+				assertNotNull(bean.getB().getA());
+				return bean;
+			});
+			final var b = executor.submit(() -> {
+				start.await();
+				final var bean = context.getBean(CircularB.class);
+
+				assertNotNull(bean.getA().getB());
+				return bean;
+			});
+
+			start.countDown();
+
+			// both threads wait for the singleton the other one is creating: one of them backs off, so this neither deadlocks nor fails
+			assertSame(b.get(10, TimeUnit.SECONDS), a.get(10, TimeUnit.SECONDS).getB());
+			assertSame(a.get(), b.get().getA());
+			assertSame(a.get(), context.getBean(CircularA.class));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
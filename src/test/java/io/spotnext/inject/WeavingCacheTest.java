@@ -0,0 +1,67 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import io.spotnext.inject.instrumentation.WeavingCache;
+
+public class WeavingCacheTest {
+
+	private static final byte[] CLASS_FILE = new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 55 };
+
+	@Test
+	public void testCacheEntries() throws IOException {
+		final var directory = Files.createTempDirectory("weaving-cache");
+
+		try {
+			final var cache = new WeavingCache(directory.resolve("nested"));
+			final var woven = cache.getKey(CLASS_FILE);
+			final var unchanged = cache.getKey(new byte[] { 1, 2, 3 });
+
+			assertNotEquals(woven, unchanged);
+			assertNull(cache.get(woven));
+
+			cache.put(woven, CLASS_FILE);
+			cache.put(unchanged, null);
+
+			assertArrayEquals(CLASS_FILE, cache.get(woven));
+			assertEquals(0, cache.get(unchanged).length);
+
+			// a second cache on the same directory, eg. in another JVM
+			assertArrayEquals(CLASS_FILE, new WeavingCache(directory.resolve("nested")).get(woven));
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testInvalidEntryIsIgnored() throws IOException {
+		final var directory = Files.createTempDirectory("weaving-cache");
+
+		try {
+			final var cache = new WeavingCache(directory);
+			final var key = cache.getKey(CLASS_FILE);
+
+			cache.put(key, new byte[] { 1, 2, 3, 4 });
+
+			assertNull(cache.get(key));
+		} finally {
+			delete(directory);
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (var files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package io.spotnext.inject;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.spotnext.inject.beans.impl.PrototypeBeanImpl;
+import io.spotnext.inject.beans.impl.SingletonServiceImpl;
+import io.spotnext.inject.instrumentation.WeavingFilter;
+
+public class WeavingFilterTest {
+
+	@Test
+	public void testBeanAnnotationInConstantPool() throws IOException {
+		final var filter = new WeavingFilter(Collections.emptyList(), Collections.emptyList());
+
+		assertTrue(filter.isCandidate(internalName(SingletonServiceImpl.class), classfile(SingletonServiceImpl.class)));
+		assertTrue(filter.isCandidate(internalName(PrototypeBeanImpl.class), classfile(PrototypeBeanImpl.class)));
+		assertFalse(filter.isCandidate(internalName(WeavingFilterTest.class), classfile(WeavingFilterTest.class)));
+		assertFalse(filter.isCandidate(internalName(String.class), classfile(String.class)));
+		assertFalse(filter.isCandidate(null, classfile(SingletonServiceImpl.class)));
+	}
+
+	@Test
+	public void testPackageFilter() throws IOException {
+		final var bean = classfile(SingletonServiceImpl.class);
+		final var name = internalName(SingletonServiceImpl.class);
+
+		assertTrue(new WeavingFilter(List.of("io.spotnext.inject.beans"), Collections.emptyList()).isCandidate(name, bean));
+		assertFalse(new WeavingFilter(List.of("com.example"), Collections.emptyList()).isCandidate(name, bean));
+		assertFalse(new WeavingFilter(Collections.emptyList(), List.of("io.spotnext.inject.beans.impl")).isCandidate(name, bean));
+	}
+
+	private static String internalName(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	private static byte[] classfile(Class<?> type) throws IOException {
+		try (var input = type.getResourceAsStream("/" + internalName(type) + ".class")) {
+			return input.readAllBytes();
+		}
+	}
+}
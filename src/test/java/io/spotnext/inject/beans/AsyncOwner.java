@@ -0,0 +1,7 @@
+package io.spotnext.inject.beans;
+
+import io.spotnext.inject.beans.impl.AsyncWorkerImpl;
+
+public interface AsyncOwner {
+	AsyncWorkerImpl getWorker();
+}
@@ -0,0 +1,9 @@
+package io.spotnext.inject.beans;
+
+import io.spotnext.inject.Provider;
+
+public interface ConstructorService {
+	SingletonService getSingletonService();
+
+	Provider<PrototypeBean> getPrototypeProvider();
+}
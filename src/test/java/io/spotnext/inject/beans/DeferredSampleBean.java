@@ -0,0 +1,32 @@
+package io.spotnext.inject.beans;
+
+import java.util.function.Supplier;
+
+import io.spotnext.inject.Provider;
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Lazy;
+
+public class DeferredSampleBean {
+
+	@Inject
+	Provider<PrototypeBean> prototypeProvider;
+
+	@Inject
+	Supplier<SingletonService> singletonSupplier;
+
+	@Lazy
+	@Inject
+	SingletonService lazySingleton;
+
+	public Provider<PrototypeBean> getPrototypeProvider() {
+		return prototypeProvider;
+	}
+
+	public Supplier<SingletonService> getSingletonSupplier() {
+		return singletonSupplier;
+	}
+
+	public SingletonService getLazySingleton() {
+		return lazySingleton;
+	}
+}
@@ -0,0 +1,7 @@
+package io.spotnext.inject.beans;
+
+
+public interface PooledBean {
+
+	StringBuilder getBuffer();
+}
@@ -0,0 +1,5 @@
+package io.spotnext.inject.beans;
+
+public interface RequestBean {
+
+}
@@ -0,0 +1,6 @@
+package io.spotnext.inject.beans;
+
+
+public interface ScopedBean {
+
+}
@@ -0,0 +1,8 @@
+package io.spotnext.inject.beans;
+
+public interface WovenClient {
+
+	SingletonService getSingletonService();
+
+	PrototypeBean getPrototype();
+}
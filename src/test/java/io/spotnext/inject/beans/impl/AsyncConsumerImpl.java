@@ -0,0 +1,22 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Prototype;
+import io.spotnext.inject.beans.AsyncConsumer;
+import io.spotnext.inject.beans.AsyncService;
+
+@Prototype
+public class AsyncConsumerImpl implements AsyncConsumer {
+
+	private final AsyncService asyncService;
+
+	@Inject
+	public AsyncConsumerImpl(AsyncService asyncService) {
+		this.asyncService = asyncService;
+	}
+
+	@Override
+	public AsyncService getAsyncService() {
+		return asyncService;
+	}
+}
@@ -0,0 +1,18 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.AsyncOwner;
+
+@Singleton
+public class AsyncOwnerImpl implements AsyncOwner {
+
+	// requested by its class, so no proxy can be injected while it is initialized asynchronously
+	@Inject
+	protected AsyncWorkerImpl worker;
+
+	@Override
+	public AsyncWorkerImpl getWorker() {
+		return worker;
+	}
+}
@@ -0,0 +1,26 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.annotations.AsyncInit;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.AsyncService;
+
+@Singleton
+@AsyncInit
+public class AsyncServiceImpl implements AsyncService {
+
+	public AsyncServiceImpl() {
+		// simulates an expensive initialization
+		try {
+			Thread.sleep(200);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		System.out.println(this.getClass().getName() + " instantiated");
+	}
+
+	@Override
+	public String getValue() {
+		return "async";
+	}
+}
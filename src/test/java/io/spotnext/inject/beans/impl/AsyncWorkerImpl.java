@@ -0,0 +1,37 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.Provider;
+import io.spotnext.inject.annotations.AsyncInit;
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.PostConstruct;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.AsyncOwner;
+import io.spotnext.inject.beans.AsyncWorker;
+
+@Singleton
+@AsyncInit
+public class AsyncWorkerImpl implements AsyncWorker {
+
+	@Inject
+	protected Provider<AsyncOwner> ownerProvider;
+
+	private AsyncOwner owner;
+
+	public AsyncWorkerImpl() {
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@PostConstruct
+	protected void init() {
+		owner = ownerProvider.get();
+	}
+
+	@Override
+	public AsyncOwner getOwner() {
+		return owner;
+	}
+}
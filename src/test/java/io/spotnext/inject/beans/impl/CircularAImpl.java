@@ -0,0 +1,39 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.Provider;
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.PostConstruct;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.CircularA;
+import io.spotnext.inject.beans.CircularB;
+
+@Singleton
+public class CircularAImpl implements CircularA {
+
+	@Inject
+	protected Provider<CircularB> provider;
+
+	private CircularB dependency;
+
+	public CircularAImpl() {
+		// slow, so that both singletons are created at the same time
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Resolves the dependency after construction, no matter if the fields are injected by the woven code or by the context.
+	 */
+	@PostConstruct
+	protected void init() {
+		dependency = provider.get();
+	}
+
+	@Override
+	public CircularB getB() {
+		return dependency;
+	}
+}
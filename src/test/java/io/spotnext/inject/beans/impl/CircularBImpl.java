@@ -0,0 +1,39 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.Provider;
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.PostConstruct;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.CircularB;
+import io.spotnext.inject.beans.CircularA;
+
+@Singleton
+public class CircularBImpl implements CircularB {
+
+	@Inject
+	protected Provider<CircularA> provider;
+
+	private CircularA dependency;
+
+	public CircularBImpl() {
+		// slow, so that both singletons are created at the same time
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Resolves the dependency after construction, no matter if the fields are injected by the woven code or by the context.
+	 */
+	@PostConstruct
+	protected void init() {
+		dependency = provider.get();
+	}
+
+	@Override
+	public CircularA getA() {
+		return dependency;
+	}
+}
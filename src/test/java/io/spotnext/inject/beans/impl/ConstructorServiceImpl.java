@@ -0,0 +1,31 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.Provider;
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.ConstructorService;
+import io.spotnext.inject.beans.PrototypeBean;
+import io.spotnext.inject.beans.SingletonService;
+
+@Singleton
+public class ConstructorServiceImpl implements ConstructorService {
+
+	private final SingletonService singletonService;
+	private final Provider<PrototypeBean> prototypeProvider;
+
+	@Inject
+	public ConstructorServiceImpl(SingletonService singletonService, Provider<PrototypeBean> prototypeProvider) {
+		this.singletonService = singletonService;
+		this.prototypeProvider = prototypeProvider;
+	}
+
+	@Override
+	public SingletonService getSingletonService() {
+		return singletonService;
+	}
+
+	@Override
+	public Provider<PrototypeBean> getPrototypeProvider() {
+		return prototypeProvider;
+	}
+}
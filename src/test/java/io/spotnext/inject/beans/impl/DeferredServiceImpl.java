@@ -0,0 +1,32 @@
+package io.spotnext.inject.beans.impl;
+
+import java.util.function.Supplier;
+
+import io.spotnext.inject.Provider;
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Lazy;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.DeferredService;
+import io.spotnext.inject.beans.PrototypeBean;
+import io.spotnext.inject.beans.SingletonService;
+
+@Singleton
+public class DeferredServiceImpl implements DeferredService {
+
+	@Inject
+	protected PrototypeBean prototype;
+
+	@Inject
+	protected Provider<SingletonService> provider;
+
+	@Inject
+	protected Supplier<SingletonService> supplier;
+
+	@Lazy
+	@Inject
+	protected SingletonService lazy;
+
+	public DeferredServiceImpl() {
+		System.out.println(this.getClass().getName() + " instantiated");
+	}
+}
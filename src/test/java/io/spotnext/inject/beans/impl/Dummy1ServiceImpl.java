@@ -4,7 +4,7 @@ import io.spotnext.inject.annotations.Singleton;
 import io.spotnext.inject.beans.PrototypeBean;
 import io.spotnext.inject.beans.SingletonService;
 
-@Singleton
+@Singleton("dummy")
 public class Dummy1ServiceImpl implements SingletonService {
 
 	public Dummy1ServiceImpl() {
@@ -0,0 +1,30 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.PreDestroy;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.LifecycleClient;
+import io.spotnext.inject.beans.LifecycleService;
+
+@Singleton
+public class LifecycleClientImpl implements LifecycleClient {
+
+	@Inject
+	protected LifecycleService lifecycleService;
+
+	public LifecycleClientImpl() {
+		System.out.println(this.getClass().getName() + " instantiated");
+	}
+
+	@PreDestroy
+	protected void destroy() throws InterruptedException {
+		// the service must still be available while the client shuts down
+		Thread.sleep(50);
+		LifecycleServiceImpl.DESTROYED.add(getClass());
+	}
+
+	@Override
+	public LifecycleService getLifecycleService() {
+		return lifecycleService;
+	}
+}
@@ -0,0 +1,46 @@
+package io.spotnext.inject.beans.impl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.spotnext.inject.Context;
+import io.spotnext.inject.annotations.PostConstruct;
+import io.spotnext.inject.annotations.PreDestroy;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.LifecycleService;
+
+@Singleton
+public class LifecycleServiceImpl implements LifecycleService {
+
+	/**
+	 * The destroyed beans, in the order of their destruction.
+	 */
+	public static final List<Class<?>> DESTROYED = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The current context at the time of the last destruction.
+	 */
+	public static volatile Context destroyedIn;
+
+	private boolean initialized = false;
+
+	public LifecycleServiceImpl() {
+		System.out.println(this.getClass().getName() + " instantiated");
+	}
+
+	@PostConstruct
+	protected void init() {
+		initialized = true;
+	}
+
+	@PreDestroy
+	protected void destroy() {
+		DESTROYED.add(getClass());
+		destroyedIn = Context.instance();
+	}
+
+	@Override
+	public boolean isInitialized() {
+		return initialized;
+	}
+}
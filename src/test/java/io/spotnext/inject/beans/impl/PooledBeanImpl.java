@@ -0,0 +1,26 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.Poolable;
+import io.spotnext.inject.annotations.Pooled;
+import io.spotnext.inject.beans.PooledBean;
+
+@Pooled(size = 2)
+public class PooledBeanImpl implements PooledBean, Poolable {
+
+	private final StringBuilder buffer = new StringBuilder();
+
+	public PooledBeanImpl() {
+		System.out.println(this.getClass().getName() + " instantiated");
+	}
+
+	@Override
+	public StringBuilder getBuffer() {
+		return buffer;
+	}
+
+	@Override
+	public void reset() {
+		buffer.setLength(0);
+	}
+
+}
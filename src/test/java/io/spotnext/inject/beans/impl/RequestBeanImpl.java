@@ -0,0 +1,13 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.annotations.RequestScoped;
+import io.spotnext.inject.beans.RequestBean;
+
+@RequestScoped
+public class RequestBeanImpl implements RequestBean {
+
+	public RequestBeanImpl() {
+		System.out.println(this.getClass().getName() + " instantiated");
+	}
+
+}
@@ -0,0 +1,13 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.annotations.RequestScoped;
+import io.spotnext.inject.beans.ScopedBean;
+
+@RequestScoped
+public class RequestScopedBeanImpl implements ScopedBean {
+
+	public RequestScopedBeanImpl() {
+		System.out.println(this.getClass().getName() + " instantiated");
+	}
+
+}
@@ -0,0 +1,13 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.annotations.ThreadScoped;
+import io.spotnext.inject.beans.ScopedBean;
+
+@ThreadScoped
+public class ThreadScopedBeanImpl implements ScopedBean {
+
+	public ThreadScopedBeanImpl() {
+		System.out.println(this.getClass().getName() + " instantiated");
+	}
+
+}
@@ -0,0 +1,38 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.Context;
+import io.spotnext.inject.Provider;
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Processed;
+import io.spotnext.inject.annotations.Prototype;
+import io.spotnext.inject.beans.PrototypeBean;
+import io.spotnext.inject.beans.SingletonService;
+import io.spotnext.inject.beans.WovenClient;
+
+/**
+ * Written like the output of the {@link io.spotnext.inject.instrumentation.InjectionTransformer}, so the injection through the static handles is
+ * tested independently of the java agent.
+ */
+@Processed
+@Prototype
+public class WovenClientImpl implements WovenClient {
+
+	private static final Provider<SingletonService> inject$singletonService = Context.getCurrentProvider(SingletonService.class);
+	private static final Provider<PrototypeBean> inject$prototype = Context.getCurrentProvider(PrototypeBean.class);
+
+	@Inject
+	protected SingletonService singletonService = inject$singletonService.get();
+
+	@Inject
+	protected PrototypeBean prototype = inject$prototype.get();
+
+	@Override
+	public SingletonService getSingletonService() {
+		return singletonService;
+	}
+
+	@Override
+	public PrototypeBean getPrototype() {
+		return prototype;
+	}
+}
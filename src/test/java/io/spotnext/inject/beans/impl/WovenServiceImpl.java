@@ -0,0 +1,23 @@
+package io.spotnext.inject.beans.impl;
+
+import io.spotnext.inject.annotations.Inject;
+import io.spotnext.inject.annotations.Processed;
+import io.spotnext.inject.annotations.Singleton;
+import io.spotnext.inject.beans.PrototypeBean;
+import io.spotnext.inject.beans.WovenService;
+
+/**
+ * Marked as woven, so the context must leave its fields alone, even though it has a generated factory.
+ */
+@Processed
+@Singleton
+public class WovenServiceImpl implements WovenService {
+
+	@Inject
+	protected PrototypeBean prototype;
+
+	@Override
+	public PrototypeBean getPrototype() {
+		return prototype;
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2008 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+@javax.annotation.processing.Generated("io.spotnext.inject.processor.BeanProcessor")
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public final class InjectedServiceProvider$$Factory implements io.spotnext.inject.BeanFactory<test.InjectedServiceProvider> {
+
+	private static final boolean WOVEN = test.InjectedServiceProvider.class.isAnnotationPresent(io.spotnext.inject.annotations.Processed.class);
+
+	private volatile int[] beanIds;
+
+	@Override
+	public test.InjectedServiceProvider newInstance(io.spotnext.inject.Context context) {
+		return new test.InjectedServiceProvider();
+	}
+
+	@Override
+	public void inject(io.spotnext.inject.Context context, test.InjectedServiceProvider bean) {
+		if (WOVEN) {
+			return;
+		}
+		bean.someService = context.getBean(getBeanIds(context)[0], test.SomeService.class);
+		context.injectField(bean, test.InjectedServiceProvider.class, "privateSomeService");
+	}
+
+	private int[] getBeanIds(io.spotnext.inject.Context context) {
+		int[] ids = beanIds;
+
+		if (ids == null) {
+			ids = new int[] { context.getBeanId(test.SomeService.class) };
+			beanIds = ids;
+		}
+
+		return ids;
+	}
+}